@@ -0,0 +1,97 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Likes;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+final class BenchmarkData {
+
+    static final int LIKES_PER_USER = 10;
+    static final int FRIENDS_PER_USER = 10;
+
+    private BenchmarkData() {
+    }
+
+    static ConfigurableApplicationContext start(int size) {
+        ConfigurableApplicationContext context = context("benchmark-" + size, WebApplicationType.NONE);
+        seed(context.getBean(FilmStorage.class), context.getBean(UserStorage.class), size);
+        return context;
+    }
+
+    // passed as arguments, default properties would lose to application.properties
+    static ConfigurableApplicationContext context(String database, WebApplicationType type, String... properties) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(type)
+                .run(args.toArray(new String[0]));
+    }
+
+    static List<Film> films(int count) {
+        List<Film> films = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            films.add(Film.builder()
+                    .name("Film " + i)
+                    .description("Benchmark film number " + i)
+                    .releaseDate(LocalDate.of(1950 + i % 70, 1 + i % 12, 1 + i % 28))
+                    .duration(80 + i % 90)
+                    .mpa(Mpa.builder().id(1 + i % 5).build())
+                    .genres(List.of(Genre.builder().id(1 + i % 6).build(), Genre.builder().id(1 + (i + 3) % 6).build()))
+                    .build());
+        }
+        return films;
+    }
+
+    private static void seed(FilmStorage filmStorage, UserStorage userStorage, int size) {
+        Random random = new Random(size);
+        List<User> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(User.builder()
+                    .email("user" + i + "@mail.ru")
+                    .login("user" + i)
+                    .name("User " + i)
+                    .birthday(LocalDate.of(1970 + i % 40, 1 + i % 12, 1 + i % 28))
+                    .build());
+        }
+        List<Integer> userIds = userStorage.addUsers(users);
+        List<Integer> filmIds = filmStorage.addFilms(films(size));
+
+        List<Likes> likes = new ArrayList<>(size * LIKES_PER_USER);
+        List<Friendship> friendships = new ArrayList<>(size * FRIENDS_PER_USER);
+        for (Integer userId : userIds) {
+            for (int i = 0; i < LIKES_PER_USER; i++) {
+                Likes like = new Likes();
+                like.setUserId(userId);
+                like.setFilmId(filmIds.get((int) (size * Math.pow(random.nextDouble(), 2))));
+                likes.add(like);
+            }
+            for (int i = 0; i < FRIENDS_PER_USER; i++) {
+                Integer friendId = userIds.get(random.nextInt(size));
+                if (!friendId.equals(userId)) {
+                    friendships.add(new Friendship(userId, friendId));
+                }
+            }
+        }
+        filmStorage.addLikes(likes);
+        userStorage.addFriends(friendships);
+    }
+}
@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.controller.CborMessageConverter;
+import ru.yandex.practicum.filmorate.controller.SmileMessageConverter;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.service.film.FilmService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding time and body size of the popular and page responses with the mappers the controllers use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodingBenchmark {
+
+    private static final int SIZE = 10_000;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"popular", "page"})
+    private String payload;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper mapper;
+    private Object value;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Body {
+        public long bytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start(SIZE);
+        switch (format) {
+            case "cbor":
+                mapper = context.getBean(CborMessageConverter.class).getObjectMapper();
+                break;
+            case "smile":
+                mapper = context.getBean(SmileMessageConverter.class).getObjectMapper();
+                break;
+            default:
+                mapper = context.getBean(ObjectMapper.class);
+        }
+        FilmService filmService = context.getBean(FilmService.class);
+        value = "popular".equals(payload)
+                ? filmService.getPopular(100, null, null)
+                : filmService.getFilms(null, 1000, FilmField.ALL).getItems();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] encode(Body body) throws JsonProcessingException {
+        byte[] encoded = mapper.writeValueAsBytes(value);
+        body.bytes = encoded.length;
+        return encoded;
+    }
+}
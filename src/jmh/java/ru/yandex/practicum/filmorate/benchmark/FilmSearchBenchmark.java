@@ -0,0 +1,158 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Likes;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search over a catalogue of random words with a zipf-like frequency, on the memory profile so that
+ * a million films load in seconds. The queries mix single words, two words, 3-letter prefixes and typos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilmSearchBenchmark {
+
+    private static final int WORDS = 50_000;
+    private static final int TITLE_WORDS = 3;
+    private static final int DESCRIPTION_WORDS = 15;
+    private static final int LIKES_PER_USER = 50;
+    private static final int QUERIES = 2_000;
+    private static final int BATCH = 10_000;
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private FilmStorage filmStorage;
+    private String[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.context("search-" + size, WebApplicationType.NONE, "spring.profiles.active=memory");
+        filmStorage = context.getBean(FilmStorage.class);
+        UserStorage userStorage = context.getBean(UserStorage.class);
+
+        Random random = new Random(42);
+        String[] words = new String[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            words[i] = word(random);
+        }
+        List<Film> films = new ArrayList<>(BATCH);
+        for (int i = 0; i < size; i++) {
+            films.add(Film.builder()
+                    .name(text(random, words, TITLE_WORDS))
+                    .description(text(random, words, DESCRIPTION_WORDS))
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .duration(100)
+                    .mpa(Mpa.builder().id(1 + i % 5).build())
+                    .build());
+            if (films.size() == BATCH) {
+                filmStorage.addFilms(films);
+                films.clear();
+            }
+        }
+        filmStorage.addFilms(films);
+
+        List<Integer> userIds = userStorage.addUsers(Collections.nCopies(size / 10, User.builder()
+                .email("search@mail.ru")
+                .login("search")
+                .name("search")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build()));
+        List<Likes> likes = new ArrayList<>(BATCH);
+        for (Integer userId : userIds) {
+            random.doubles().mapToInt(d -> 1 + (int) (size * Math.pow(d, 3))).distinct().limit(LIKES_PER_USER)
+                    .forEach(filmId -> {
+                        Likes like = new Likes();
+                        like.setUserId(userId);
+                        like.setFilmId(filmId);
+                        likes.add(like);
+                    });
+            if (likes.size() >= BATCH) {
+                filmStorage.addLikes(likes);
+                likes.clear();
+            }
+        }
+        filmStorage.addLikes(likes);
+
+        queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String first = words[zipf(random)];
+            String second = words[zipf(random)];
+            switch (i % 4) {
+                case 0:
+                    queries[i] = first;
+                    break;
+                case 1:
+                    queries[i] = first + " " + second;
+                    break;
+                case 2:
+                    queries[i] = first.substring(0, 3);
+                    break;
+                default:
+                    queries[i] = first.substring(1) + " " + second;
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Film> search() {
+        next = (next + 1) % QUERIES;
+        return filmStorage.searchFilms(queries[next], 10);
+    }
+
+    private static String text(Random random, String[] words, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(words[zipf(random)]).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static int zipf(Random random) {
+        return (int) (WORDS * Math.pow(random.nextDouble(), 4));
+    }
+
+    private static String word(Random random) {
+        char[] letters = new char[4 + random.nextInt(6)];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(letters);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilmStorageBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private FilmStorage filmStorage;
+    private Integer likerId;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start(size);
+        filmStorage = context.getBean(FilmStorage.class);
+        likerId = context.getBean(UserStorage.class).addUser(User.builder()
+                .email("liker@mail.ru")
+                .login("liker")
+                .name("Liker")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build()).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Collection<Film> getPopular() {
+        return filmStorage.getPopular(10);
+    }
+
+    @Benchmark
+    public Collection<Film> getAllFilms() {
+        return filmStorage.getAllFilms();
+    }
+
+    @Benchmark
+    public List<Film> getFilmsPage() {
+        return filmStorage.getFilms(nextId() - 1, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Film getFilmById() {
+        return filmStorage.getFilmById(nextId());
+    }
+
+    @Benchmark
+    public void addAndDeleteLike() {
+        int filmId = nextId();
+        filmStorage.addLike(filmId, likerId);
+        filmStorage.deleteLike(filmId, likerId);
+    }
+
+    private int nextId() {
+        next = next % size + 1;
+        return next;
+    }
+}
@@ -0,0 +1,135 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Likes;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap taken by likes on the memory profile: every iteration loads {@code users * 10} likes into a fresh
+ * context and reports the heap growth next to the load time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class InMemoryFootprintBenchmark {
+
+    private static final int LIKES_PER_USER = 10;
+    private static final int BATCH = 10_000;
+
+    @Param({"1000000"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private FilmStorage filmStorage;
+    private List<List<Likes>> batches;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long likes;
+        public long heapBytes;
+        public double bytesPerLike;
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        context = BenchmarkData.context("footprint-" + users, WebApplicationType.NONE, "spring.profiles.active=memory");
+        filmStorage = context.getBean(FilmStorage.class);
+        UserStorage userStorage = context.getBean(UserStorage.class);
+        int films = users / 10;
+        for (int i = 0; i < films; i += BATCH) {
+            filmStorage.addFilms(Collections.nCopies(Math.min(BATCH, films - i), Film.builder()
+                    .name("footprint")
+                    .description("footprint")
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .duration(100)
+                    .mpa(Mpa.builder().id(1).build())
+                    .build()));
+        }
+        List<Integer> userIds = new ArrayList<>(users);
+        for (int i = 0; i < users; i += BATCH) {
+            userIds.addAll(userStorage.addUsers(Collections.nCopies(Math.min(BATCH, users - i), User.builder()
+                    .email("footprint@mail.ru")
+                    .login("footprint")
+                    .name("footprint")
+                    .birthday(LocalDate.of(1990, 1, 1))
+                    .build())));
+        }
+
+        // the like batches are built up front so that only the storage shows up in the heap delta
+        Random random = new Random(42);
+        batches = new ArrayList<>();
+        List<Likes> batch = new ArrayList<>(BATCH);
+        for (Integer userId : userIds) {
+            random.ints(1, films + 1).distinct().limit(LIKES_PER_USER).forEach(filmId -> {
+                Likes like = new Likes();
+                like.setUserId(userId);
+                like.setFilmId(filmId);
+                batch.add(like);
+            });
+            if (batch.size() >= BATCH) {
+                batches.add(new ArrayList<>(batch));
+                batch.clear();
+            }
+        }
+        batches.add(batch);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        batches = null;
+        context.close();
+    }
+
+    @Benchmark
+    public void addLikes(Footprint footprint) {
+        long before = usedHeap();
+        long added = 0;
+        for (List<Likes> batch : batches) {
+            for (int count : filmStorage.addLikes(batch)) {
+                added += count;
+            }
+        }
+        long after = usedHeap();
+        footprint.likes = added;
+        footprint.heapBytes = after - before;
+        footprint.bytesPerLike = (double) (after - before) / added;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,109 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import ru.yandex.practicum.filmorate.controller.reactive.ReactiveServer;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The same requests against the blocking and the reactive port of one application: every benchmark
+ * thread is a client that waits for its response before sending the next request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReactiveLoadBenchmark {
+
+    private static final int FILMS = 5_000;
+    private static final int CLIENTS = 200;
+    private static final int SLOW_CLIENTS = 50;
+    private static final Duration SLOW_READ_DELAY = Duration.ofMillis(2);
+
+    @Param({"blocking", "reactive"})
+    private String port;
+
+    private ConfigurableApplicationContext context;
+    private ConnectionProvider connections;
+    private HttpClient client;
+    private String baseUrl;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.context("load", WebApplicationType.SERVLET,
+                "server.port=0",
+                "filmorate.reactive.enabled=true",
+                "filmorate.reactive.port=0",
+                "filmorate.bulkhead.lists.queue-capacity=100000",
+                "filmorate.bulkhead.lists.timeout-ms=600000");
+        context.getBean(FilmStorage.class).addFilms(BenchmarkData.films(FILMS));
+        int serverPort = "reactive".equals(port)
+                ? context.getBean(ReactiveServer.class).port()
+                : context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        baseUrl = "http://localhost:" + serverPort;
+        connections = ConnectionProvider.builder("load")
+                .maxConnections(CLIENTS)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        client = HttpClient.create(connections);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connections.dispose();
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(CLIENTS)
+    public int page() {
+        int after = Math.floorMod(next.getAndAdd(7919), FILMS);
+        return check(client.get()
+                .uri(baseUrl + "/films?limit=100&after=" + after)
+                .responseSingle((response, body) -> body.asByteArray().thenReturn(response.status().code()))
+                .block());
+    }
+
+    @Benchmark
+    @Threads(SLOW_CLIENTS)
+    public int slowExport() {
+        return check(client.get()
+                .uri(baseUrl + "/films/export")
+                .response((response, body) -> body.map(ByteBuf::readableBytes)
+                        .delayElements(SLOW_READ_DELAY)
+                        .then(Mono.just(response.status().code())))
+                .blockLast());
+    }
+
+    private static int check(Integer status) {
+        if (status == null || status != 200) {
+            throw new IllegalStateException("Unexpected status " + status);
+        }
+        return status;
+    }
+}
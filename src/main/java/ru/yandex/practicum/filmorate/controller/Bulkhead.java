@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.exception.ServiceUnavailableException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Slf4j
+public class Bulkhead {
+
+    public static final String REJECTED = "filmorate.bulkhead.rejected";
+    public static final String TIMEOUTS = "filmorate.bulkhead.timeouts";
+
+    private final String name;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+    private final Counter timeouts;
+
+    public Bulkhead(String name, int threads, int queueCapacity, long timeoutMillis, MeterRegistry registry) {
+        this.name = name;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bulkhead-" + name + "-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "bulkhead." + name, Tags.empty()).bindTo(registry);
+        this.rejected = registry.counter(REJECTED, "bulkhead", name);
+        this.timeouts = registry.counter(TIMEOUTS, "bulkhead", name);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    result.complete(task.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Bulkhead {} is saturated, request rejected.", name);
+            throw new ServiceUnavailableException(String.format("Too many %s requests in progress, try again later.",
+                    name));
+        }
+        return result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).handle((value, e) -> {
+            if (e == null) {
+                return value;
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof TimeoutException) {
+                timeouts.increment();
+                log.warn("Bulkhead {} request timed out after {} ms.", name, timeoutMillis);
+                throw new ServiceUnavailableException(String.format("The %s request timed out, try again later.",
+                        name));
+            }
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+        });
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.metrics.SqlStatementMetrics;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class Bulkheads {
+
+    private final SqlStatementMetrics sqlStatementMetrics;
+    private final Bulkhead lists;
+    private final Bulkhead lookups;
+
+    public Bulkheads(SqlStatementMetrics sqlStatementMetrics,
+                     MeterRegistry registry,
+                     @Value("${filmorate.bulkhead.lists.threads:4}") int listThreads,
+                     @Value("${filmorate.bulkhead.lists.queue-capacity:100}") int listQueue,
+                     @Value("${filmorate.bulkhead.lists.timeout-ms:5000}") long listTimeout,
+                     @Value("${filmorate.bulkhead.lookups.threads:6}") int lookupThreads,
+                     @Value("${filmorate.bulkhead.lookups.queue-capacity:200}") int lookupQueue,
+                     @Value("${filmorate.bulkhead.lookups.timeout-ms:1000}") long lookupTimeout,
+                     @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        if (listThreads + lookupThreads >= poolSize) {
+            log.warn("Bulkheads use {} threads with a connection pool of {}, writes may wait for a connection.",
+                    listThreads + lookupThreads, poolSize);
+        }
+        this.sqlStatementMetrics = sqlStatementMetrics;
+        this.lists = new Bulkhead("lists", listThreads, listQueue, listTimeout, registry);
+        this.lookups = new Bulkhead("lookups", lookupThreads, lookupQueue, lookupTimeout, registry);
+    }
+
+    public <T> CompletableFuture<T> list(Supplier<T> task) {
+        return lists.submit(sqlStatementMetrics.propagate(task));
+    }
+
+    public <T> CompletableFuture<T> lookup(Supplier<T> task) {
+        return lookups.submit(sqlStatementMetrics.propagate(task));
+    }
+
+    @PreDestroy
+    public void stop() {
+        lists.shutdown();
+        lookups.shutdown();
+    }
+}
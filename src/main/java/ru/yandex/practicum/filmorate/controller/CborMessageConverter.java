@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CborMessageConverter extends MappingJackson2CborHttpMessageConverter {
+
+    public CborMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        super(builder.factory(new CBORFactory()).build());
+    }
+}
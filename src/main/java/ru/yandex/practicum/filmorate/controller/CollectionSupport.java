@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import ru.yandex.practicum.filmorate.model.Batch;
+
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public final class CollectionSupport {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String MISSING_IDS_HEADER = "X-Missing-Ids";
+
+    private CollectionSupport() {
+    }
+
+    static <F> ResponseEntity<MappingJacksonValue> batchResponse(Batch<?> batch, Set<F> fields, Set<F> all,
+                                                                  Function<F, String> property) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!batch.getMissingIds().isEmpty()) {
+            response.header(MISSING_IDS_HEADER, batch.getMissingIds().stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(",")));
+        }
+        return response.body(FieldsSupport.project(batch.getItems(), fields, all, property));
+    }
+}
@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.service.film.FilmCache;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+import ru.yandex.practicum.filmorate.storage.util.ResourceVersions;
+
+import java.util.Map;
+
+@Slf4j
+@Component
+@Endpoint(id = "dictionaries")
+@RequiredArgsConstructor
+public class DictionariesEndpoint {
+
+    private final GenreStorage genreStorage;
+    private final MpaStorage mpaStorage;
+    private final FilmCache filmCache;
+    private final ResourceVersions resourceVersions;
+
+    @ReadOperation
+    public Map<String, Integer> sizes() {
+        return Map.of("genres", genreStorage.getAllGenres().size(), "mpa", mpaStorage.getAllMpa().size());
+    }
+
+    /**
+     * Reloads GENRE and RATING after an admin edits them. Cached films hold the old instances,
+     * so the film cache and every ETag are dropped as well.
+     */
+    @WriteOperation
+    public Map<String, Integer> refresh() {
+        genreStorage.refresh();
+        mpaStorage.refresh();
+        filmCache.invalidateAll();
+        resourceVersions.allChanged();
+        log.info("Genres and MPA ratings refreshed.");
+        return sizes();
+    }
+}
@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Fields;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+public class FieldsSupport implements Jackson2ObjectMapperBuilderCustomizer {
+
+    @Override
+    public void customize(Jackson2ObjectMapperBuilder builder) {
+        // the filter is mixed in here rather than declared on the models, so mappers built elsewhere
+        // (benchmarks, tests) serialize them without a filter provider
+        builder.mixIn(Film.class, Filtered.class)
+                .mixIn(User.class, Filtered.class)
+                .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    static <F> MappingJacksonValue project(Object body, Set<F> fields, Set<F> all, Function<F, String> property) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (!fields.equals(all)) {
+            Set<String> properties = fields.stream().map(property).collect(Collectors.toSet());
+            value.setFilters(new SimpleFilterProvider()
+                    .addFilter(Fields.FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(properties)));
+        }
+        return value;
+    }
+
+    @JsonFilter(Fields.FILTER)
+    private interface Filtered {
+    }
+}
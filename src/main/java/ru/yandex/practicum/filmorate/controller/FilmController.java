@@ -1,12 +1,27 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import ru.yandex.practicum.filmorate.model.BulkResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.Likes;
+import ru.yandex.practicum.filmorate.model.Page;
 import ru.yandex.practicum.filmorate.service.film.FilmService;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/films")
@@ -14,20 +29,71 @@ import java.util.Collection;
 public class FilmController {
 
     private final FilmService filmService;
+    private final NdjsonImporter ndjsonImporter;
+    private final NdjsonExporter ndjsonExporter;
+    private final Bulkheads bulkheads;
+    private final RepresentationSupport representations;
 
     @GetMapping("/{id}")
-    public Film findFilm(@PathVariable Integer id) {
-        return filmService.getFilmById(id);
+    public CompletableFuture<Film> findFilm(@PathVariable Integer id, NativeWebRequest request) {
+        if (representations.checkNotModified(request, filmService.getFilmTag(id))) {
+            return null;
+        }
+        return bulkheads.lookup(() -> filmService.getFilmById(id));
     }
 
     @GetMapping("/popular")
-    public Collection<Film> findPopularFilms(@RequestParam(defaultValue = "10") Integer count) {
-        return filmService.getPopular(count);
+    public CompletableFuture<Collection<Film>> findPopularFilms(@RequestParam(defaultValue = "10") Integer count,
+                                                               @RequestParam(required = false) Integer genreId,
+                                                               @RequestParam(required = false) Integer year,
+                                                               NativeWebRequest request) {
+        if (representations.checkNotModified(request, filmService.getPopularTag())) {
+            return null;
+        }
+        return bulkheads.list(() -> filmService.getPopular(count, genreId, year));
+    }
+
+    @GetMapping("/trending")
+    public CompletableFuture<Collection<Film>> findTrendingFilms(@RequestParam(defaultValue = "10") Integer count,
+                                                                 @RequestParam(defaultValue = "24h") String window) {
+        return bulkheads.list(() -> filmService.getTrending(count, window));
+    }
+
+    @GetMapping("/search")
+    public CompletableFuture<Collection<Film>> searchFilms(@RequestParam(required = false) String q,
+                                                           @RequestParam(defaultValue = "10") Integer limit) {
+        return bulkheads.lookup(() -> filmService.searchFilms(q, limit));
     }
 
     @GetMapping
-    public Collection<Film> findAllFilms() {
-        return filmService.getAllFilms();
+    public CompletableFuture<ResponseEntity<MappingJacksonValue>> findAllFilms(
+            @RequestParam(required = false) Integer after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+        Set<FilmField> projection = FilmField.parse(fields);
+        return bulkheads.list(() -> {
+            Page<Film> page = filmService.getFilms(after, limit, projection);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(CollectionSupport.NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()));
+            }
+            return response.body(FieldsSupport.project(page.getItems(), projection, FilmField.ALL,
+                    FilmField::getProperty));
+        });
+    }
+
+    @GetMapping(params = "ids")
+    public CompletableFuture<ResponseEntity<MappingJacksonValue>> findFilms(
+            @RequestParam String ids,
+            @RequestParam(required = false) String fields) {
+        Set<FilmField> projection = FilmField.parse(fields);
+        return bulkheads.lookup(() -> CollectionSupport.batchResponse(filmService.getFilmsByIds(ids), projection,
+                FilmField.ALL, FilmField::getProperty));
+    }
+
+    @GetMapping(value = "/export", produces = NdjsonSupport.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportFilms(HttpServletResponse response) {
+        return ndjsonExporter.stream(response, filmService::exportFilms);
     }
 
     @PostMapping
@@ -35,6 +101,26 @@ public class FilmController {
         return filmService.addFilm(film);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkResult createFilms(@RequestBody List<Film> films) {
+        return filmService.addFilms(films);
+    }
+
+    @PostMapping(value = "/bulk", consumes = NdjsonSupport.APPLICATION_NDJSON_VALUE)
+    public BulkResult createFilms(InputStream body) throws IOException {
+        return ndjsonImporter.read(body, Film.class, filmService::addFilms);
+    }
+
+    @PostMapping(value = "/likes/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkResult addLikes(@RequestBody List<Likes> likes) {
+        return filmService.addLikes(likes);
+    }
+
+    @PostMapping(value = "/likes/bulk", consumes = NdjsonSupport.APPLICATION_NDJSON_VALUE)
+    public BulkResult addLikes(InputStream body) throws IOException {
+        return ndjsonImporter.read(body, Likes.class, filmService::addLikes);
+    }
+
     @PutMapping
     public Film updateFilm(@Valid @RequestBody Film film) {
         return filmService.updateFilm(film);
@@ -55,4 +141,3 @@ public class FilmController {
         filmService.deleteLike(id, userId);
     }
 }
-
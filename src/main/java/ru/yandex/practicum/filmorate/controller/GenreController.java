@@ -9,20 +9,22 @@ import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.service.genre.GenreService;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/genres")
 @AllArgsConstructor
 public class GenreController {
     private final GenreService genreService;
+    private final Bulkheads bulkheads;
 
     @GetMapping("/{id}")
-    public Genre findGenre(@PathVariable("id") Integer id) {
-        return genreService.getGenre(id);
+    public CompletableFuture<Genre> findGenre(@PathVariable("id") Integer id) {
+        return bulkheads.lookup(() -> genreService.getGenre(id));
     }
 
     @GetMapping
-    public Collection<Genre> findAllGenres() {
-        return genreService.getAllGenre();
+    public CompletableFuture<Collection<Genre>> findAllGenres() {
+        return bulkheads.lookup(genreService::getAllGenre);
     }
 }
@@ -9,20 +9,22 @@ import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.service.mpa.MpaService;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/mpa")
 @AllArgsConstructor
 public class MpaController {
     private final MpaService mpaService;
+    private final Bulkheads bulkheads;
 
     @GetMapping("/{id}")
-    public Mpa findMpa(@PathVariable("id") Integer id) {
-        return mpaService.getMpa(id);
+    public CompletableFuture<Mpa> findMpa(@PathVariable("id") Integer id) {
+        return bulkheads.lookup(() -> mpaService.getMpa(id));
     }
 
     @GetMapping
-    public Collection<Mpa> findAllMpa() {
-        return mpaService.getAllMpa();
+    public CompletableFuture<Collection<Mpa>> findAllMpa() {
+        return bulkheads.lookup(mpaService::getAllMpa);
     }
 }
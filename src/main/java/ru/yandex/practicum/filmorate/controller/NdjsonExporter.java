@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+@Component
+public class NdjsonExporter {
+
+    private final ObjectMapper objectMapper;
+    private final long timeoutMs;
+
+    public NdjsonExporter(ObjectMapper objectMapper,
+                          @Value("${filmorate.export.timeout:10m}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.timeoutMs = timeout.toMillis();
+    }
+
+    <T> WebAsyncTask<Void> stream(HttpServletResponse response, Consumer<Consumer<T>> source) {
+        return new WebAsyncTask<>(timeoutMs, () -> {
+            response.setContentType(NdjsonSupport.APPLICATION_NDJSON_VALUE);
+            try (SequenceWriter writer = objectMapper.writer()
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(response.getOutputStream())) {
+                source.accept(value -> {
+                    try {
+                        writer.write(value);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.BulkResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+@Component
+public class NdjsonImporter {
+
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public NdjsonImporter(ObjectMapper objectMapper,
+                          @Value("${filmorate.bulk.chunk-size:1000}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    <T> BulkResult read(InputStream in, Class<T> type, Function<List<T>, BulkResult> importer) throws IOException {
+        BulkResult result = new BulkResult(0);
+        List<T> chunk = new ArrayList<>(chunkSize);
+        String malformed = null;
+        try (MappingIterator<T> values = objectMapper.readerFor(type).readValues(in)) {
+            while (values.hasNextValue()) {
+                chunk.add(values.nextValue());
+                if (chunk.size() == chunkSize) {
+                    result.merge(importer.apply(chunk));
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            malformed = e.getOriginalMessage();
+        }
+        if (!chunk.isEmpty()) {
+            result.merge(importer.apply(chunk));
+        }
+        if (malformed != null) {
+            result.addRejected("Malformed record, import stopped: " + malformed);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,9 @@
+package ru.yandex.practicum.filmorate.controller;
+
+final class NdjsonSupport {
+
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private NdjsonSupport() {
+    }
+}
@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+@ControllerAdvice
+public class RepresentationSupport implements ResponseBodyAdvice<Object> {
+
+    private static final List<MediaType> REPRESENTATIONS = List.of(MediaType.APPLICATION_JSON,
+            MediaType.APPLICATION_CBOR, MediaType.valueOf("application/x-jackson-smile"));
+
+    private final ContentNegotiationManager contentNegotiationManager;
+
+    // contexts without Spring MVC (benchmarks) have no manager bean, Accept headers are all we read anyway
+    public RepresentationSupport(ObjectProvider<ContentNegotiationManager> contentNegotiationManager) {
+        this.contentNegotiationManager = contentNegotiationManager.getIfAvailable(ContentNegotiationManager::new);
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!response.getHeaders().getVary().contains(HttpHeaders.ACCEPT)) {
+            response.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return body;
+    }
+
+    /**
+     * Checks the tag of the representation the request negotiates, so a cached JSON body
+     * is never revalidated for a CBOR or Smile request.
+     */
+    boolean checkNotModified(NativeWebRequest request, String tag) {
+        String representationTag = tag.substring(0, tag.length() - 1) + "." + negotiate(request).getSubtype() + "\"";
+        if (!request.checkNotModified(representationTag)) {
+            return false;
+        }
+        HttpServletResponse response = request.getNativeResponse(HttpServletResponse.class);
+        if (response != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return true;
+    }
+
+    private MediaType negotiate(NativeWebRequest request) {
+        try {
+            for (MediaType accepted : contentNegotiationManager.resolveMediaTypes(request)) {
+                for (MediaType representation : REPRESENTATIONS) {
+                    if (accepted.isCompatibleWith(representation)) {
+                        return representation;
+                    }
+                }
+            }
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            // the message converters reject the request once the handler returns
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
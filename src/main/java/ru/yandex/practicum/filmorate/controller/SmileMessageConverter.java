@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SmileMessageConverter extends MappingJackson2SmileHttpMessageConverter {
+
+    public SmileMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        super(builder.factory(new SmileFactory()).build());
+    }
+}
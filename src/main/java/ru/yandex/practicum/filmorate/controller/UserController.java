@@ -1,12 +1,29 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import ru.yandex.practicum.filmorate.model.BulkResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Page;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+import ru.yandex.practicum.filmorate.service.film.FilmService;
 import ru.yandex.practicum.filmorate.service.user.UserService;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/users")
@@ -14,15 +31,49 @@ import java.util.Collection;
 public class UserController {
 
     private final UserService userService;
+    private final FilmService filmService;
+    private final NdjsonImporter ndjsonImporter;
+    private final NdjsonExporter ndjsonExporter;
+    private final Bulkheads bulkheads;
+    private final RepresentationSupport representations;
 
     @GetMapping("/{id}")
-    public User findUser(@PathVariable Integer id) {
-        return userService.getUserById(id);
+    public CompletableFuture<User> findUser(@PathVariable Integer id, NativeWebRequest request) {
+        if (representations.checkNotModified(request, userService.getUserTag(id))) {
+            return null;
+        }
+        return bulkheads.lookup(() -> userService.getUserById(id));
     }
 
     @GetMapping
-    public Collection<User> findAllUsers() {
-        return userService.getALlUsers();
+    public CompletableFuture<ResponseEntity<MappingJacksonValue>> findAllUsers(
+            @RequestParam(required = false) Integer after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+        Set<UserField> projection = UserField.parse(fields);
+        return bulkheads.list(() -> {
+            Page<User> page = userService.getUsers(after, limit, projection);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(CollectionSupport.NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()));
+            }
+            return response.body(FieldsSupport.project(page.getItems(), projection, UserField.ALL,
+                    UserField::getProperty));
+        });
+    }
+
+    @GetMapping(params = "ids")
+    public CompletableFuture<ResponseEntity<MappingJacksonValue>> findUsers(
+            @RequestParam String ids,
+            @RequestParam(required = false) String fields) {
+        Set<UserField> projection = UserField.parse(fields);
+        return bulkheads.lookup(() -> CollectionSupport.batchResponse(userService.getUsersByIds(ids), projection,
+                UserField.ALL, UserField::getProperty));
+    }
+
+    @GetMapping(value = "/export", produces = NdjsonSupport.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportUsers(HttpServletResponse response) {
+        return ndjsonExporter.stream(response, userService::exportUsers);
     }
 
     @PostMapping
@@ -30,6 +81,26 @@ public class UserController {
         return userService.addUser(user);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkResult createUsers(@RequestBody List<User> users) {
+        return userService.addUsers(users);
+    }
+
+    @PostMapping(value = "/bulk", consumes = NdjsonSupport.APPLICATION_NDJSON_VALUE)
+    public BulkResult createUsers(InputStream body) throws IOException {
+        return ndjsonImporter.read(body, User.class, userService::addUsers);
+    }
+
+    @PostMapping(value = "/friends/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkResult addFriends(@RequestBody List<Friendship> friendships) {
+        return userService.addFriends(friendships);
+    }
+
+    @PostMapping(value = "/friends/bulk", consumes = NdjsonSupport.APPLICATION_NDJSON_VALUE)
+    public BulkResult addFriends(InputStream body) throws IOException {
+        return ndjsonImporter.read(body, Friendship.class, userService::addFriends);
+    }
+
     @PutMapping
     public User updateUser(@Valid @RequestBody User user) {
         return userService.updateUser(user);
@@ -41,13 +112,33 @@ public class UserController {
     }
 
     @GetMapping("/{id}/friends")
-    public Collection<User> getFriends(@PathVariable Integer id) {
-        return userService.getFriends(id);
+    public CompletableFuture<MappingJacksonValue> getFriends(@PathVariable Integer id,
+                                                             @RequestParam(required = false) String fields,
+                                                             NativeWebRequest request) {
+        Set<UserField> projection = UserField.parse(fields);
+        if (representations.checkNotModified(request, userService.getFriendsTag(id))) {
+            return null;
+        }
+        return bulkheads.list(() -> FieldsSupport.project(userService.getFriends(id, projection), projection,
+                UserField.ALL, UserField::getProperty));
     }
 
     @GetMapping("/{id}/friends/common/{otherId}")
-    public Collection<User> getCommonFriends(@PathVariable Integer id, @PathVariable Integer otherId) {
-        return userService.getCommonFriends(id, otherId);
+    public CompletableFuture<Collection<User>> getCommonFriends(@PathVariable Integer id,
+                                                                @PathVariable Integer otherId) {
+        return bulkheads.list(() -> userService.getCommonFriends(id, otherId));
+    }
+
+    @GetMapping("/{id}/friends/suggestions")
+    public CompletableFuture<Collection<User>> getFriendSuggestions(@PathVariable Integer id,
+                                                                    @RequestParam(defaultValue = "10") Integer limit) {
+        return bulkheads.list(() -> userService.getFriendSuggestions(id, limit));
+    }
+
+    @GetMapping("/{id}/recommendations")
+    public CompletableFuture<Collection<Film>> getRecommendations(@PathVariable Integer id,
+                                                                  @RequestParam(defaultValue = "10") Integer limit) {
+        return bulkheads.list(() -> filmService.getRecommendations(id, limit));
     }
 
     @PutMapping("/{id}/friends/{friendId}")
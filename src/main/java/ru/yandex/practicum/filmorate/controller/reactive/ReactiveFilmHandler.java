@@ -0,0 +1,97 @@
+package ru.yandex.practicum.filmorate.controller.reactive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.controller.CollectionSupport;
+import ru.yandex.practicum.filmorate.exception.IncorrectParameterException;
+import ru.yandex.practicum.filmorate.model.FilmExport;
+import ru.yandex.practicum.filmorate.storage.film.ReactiveFilmStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@Profile("!memory")
+@ConditionalOnProperty(name = "filmorate.reactive.enabled", havingValue = "true", matchIfMissing = false)
+public class ReactiveFilmHandler {
+
+    static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    private final ReactiveFilmStorage filmStorage;
+    private final int maxLimit;
+
+    public ReactiveFilmHandler(ReactiveFilmStorage filmStorage,
+                               @Value("${filmorate.page.max-limit:1000}") int maxLimit) {
+        this.filmStorage = filmStorage;
+        this.maxLimit = maxLimit;
+    }
+
+    public Mono<ServerResponse> findFilm(ServerRequest request) {
+        return filmStorage.getFilmById(pathId(request)).flatMap(film -> ok(request).bodyValue(film));
+    }
+
+    public Mono<ServerResponse> findPopularFilms(ServerRequest request) {
+        int count = request.queryParam("count").map(Integer::valueOf).orElse(10);
+        if (count <= 0) {
+            throw new IncorrectParameterException("count");
+        }
+        Integer genreId = request.queryParam("genreId").map(Integer::valueOf).orElse(null);
+        Integer year = request.queryParam("year").map(Integer::valueOf).orElse(null);
+        return filmStorage.getPopular(Math.min(count, maxLimit), genreId, year)
+                .collectList()
+                .flatMap(films -> ok(request).bodyValue(films));
+    }
+
+    public Mono<ServerResponse> findAllFilms(ServerRequest request) {
+        Integer after = request.queryParam("after").map(Integer::valueOf).orElse(null);
+        int pageSize = pageSize(request);
+        return filmStorage.getFilms(after, pageSize)
+                .collectList()
+                .flatMap(films -> {
+                    ServerResponse.BodyBuilder response = ok(request);
+                    if (films.size() == pageSize) {
+                        response.header(CollectionSupport.NEXT_CURSOR_HEADER,
+                                String.valueOf(films.get(films.size() - 1).getId()));
+                    }
+                    return response.bodyValue(films);
+                });
+    }
+
+    public Mono<ServerResponse> exportFilms(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(filmStorage.exportFilms(), FilmExport.class);
+    }
+
+    private int pageSize(ServerRequest request) {
+        Integer limit = request.queryParam("limit").map(Integer::valueOf).orElse(null);
+        if (limit != null && limit <= 0) {
+            throw new IncorrectParameterException("limit");
+        }
+        return limit == null ? maxLimit : Math.min(limit, maxLimit);
+    }
+
+    static ServerResponse.BodyBuilder ok(ServerRequest request) {
+        List<MediaType> accept = new ArrayList<>(request.headers().accept());
+        MediaType.sortBySpecificityAndQuality(accept);
+        for (MediaType mediaType : accept) {
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                break;
+            }
+            if (mediaType.isCompatibleWith(APPLICATION_SMILE)) {
+                return ServerResponse.ok().contentType(APPLICATION_SMILE);
+            }
+        }
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON);
+    }
+
+    static Integer pathId(ServerRequest request) {
+        return Integer.valueOf(request.pathVariable("id"));
+    }
+}
@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate.controller.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+import ru.yandex.practicum.filmorate.controller.SmileMessageConverter;
+import ru.yandex.practicum.filmorate.exception.IncorrectParameterException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ServiceUnavailableException;
+import ru.yandex.practicum.filmorate.model.ErrorResponse;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+@Component
+@Slf4j
+@Profile("!memory")
+@ConditionalOnProperty(name = "filmorate.reactive.enabled", havingValue = "true", matchIfMissing = false)
+public class ReactiveServer {
+
+    private final RouterFunction<ServerResponse> routes;
+    private final HandlerStrategies strategies;
+    private final LoopResources loops;
+    private final int port;
+    private DisposableServer server;
+
+    public ReactiveServer(ReactiveFilmHandler films,
+                          ReactiveUserHandler users,
+                          ObjectMapper objectMapper,
+                          SmileMessageConverter smile,
+                          @Value("${filmorate.reactive.port:8081}") int port,
+                          @Value("${filmorate.reactive.threads:2}") int threads) {
+        this.routes = RouterFunctions.route()
+                .GET("/films/popular", films::findPopularFilms)
+                .GET("/films/export", films::exportFilms)
+                .GET("/films/{id}", films::findFilm)
+                .GET("/films", films::findAllFilms)
+                .GET("/users/export", users::exportUsers)
+                .GET("/users/{id}/friends", users::getFriends)
+                .GET("/users/{id}", users::findUser)
+                .GET("/users", users::findAllUsers)
+                .filter((request, next) -> Mono.defer(() -> next.handle(request))
+                        .onErrorResume(ReactiveServer::handleError))
+                .build();
+        this.strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                    codecs.customCodecs().register(new Jackson2SmileEncoder(smile.getObjectMapper(),
+                            ReactiveFilmHandler.APPLICATION_SMILE));
+                })
+                .build();
+        this.loops = LoopResources.create("reactive", threads, true);
+        this.port = port;
+    }
+
+    @PostConstruct
+    public void start() {
+        server = HttpServer.create()
+                .port(port)
+                .runOn(loops)
+                .handle(new ReactorHttpHandlerAdapter(RouterFunctions.toHttpHandler(routes, strategies)))
+                .bindNow();
+        log.info("Reactive server started on port {}.", server.port());
+    }
+
+    @PreDestroy
+    public void stop() {
+        server.disposeNow();
+        loops.dispose();
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return routes;
+    }
+
+    public int port() {
+        return server.port();
+    }
+
+    private static Mono<ServerResponse> handleError(Throwable e) {
+        log.error(e.getMessage());
+        if (e instanceof NotFoundException) {
+            return error(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+        if (e instanceof IncorrectParameterException) {
+            return error(HttpStatus.BAD_REQUEST,
+                    String.format("Wrong field \"%s\".", ((IncorrectParameterException) e).getParameter()));
+        }
+        if (e instanceof ServiceUnavailableException) {
+            return error(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+        // unparsable ids and query parameters
+        if (e instanceof NumberFormatException || e instanceof ServerWebInputException) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, String message) {
+        return ServerResponse.status(status).bodyValue(new ErrorResponse(message));
+    }
+}
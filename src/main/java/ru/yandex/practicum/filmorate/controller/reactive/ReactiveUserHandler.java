@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.controller.reactive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.controller.CollectionSupport;
+import ru.yandex.practicum.filmorate.exception.IncorrectParameterException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.ReactiveUserStorage;
+
+@Component
+@Profile("!memory")
+@ConditionalOnProperty(name = "filmorate.reactive.enabled", havingValue = "true", matchIfMissing = false)
+public class ReactiveUserHandler {
+
+    private final ReactiveUserStorage userStorage;
+    private final int maxLimit;
+
+    public ReactiveUserHandler(ReactiveUserStorage userStorage,
+                               @Value("${filmorate.page.max-limit:1000}") int maxLimit) {
+        this.userStorage = userStorage;
+        this.maxLimit = maxLimit;
+    }
+
+    public Mono<ServerResponse> findUser(ServerRequest request) {
+        return userStorage.getUserById(ReactiveFilmHandler.pathId(request))
+                .flatMap(user -> ReactiveFilmHandler.ok(request).bodyValue(user));
+    }
+
+    public Mono<ServerResponse> findAllUsers(ServerRequest request) {
+        Integer after = request.queryParam("after").map(Integer::valueOf).orElse(null);
+        Integer limit = request.queryParam("limit").map(Integer::valueOf).orElse(null);
+        if (limit != null && limit <= 0) {
+            throw new IncorrectParameterException("limit");
+        }
+        int pageSize = limit == null ? maxLimit : Math.min(limit, maxLimit);
+        return userStorage.getUsers(after, pageSize)
+                .collectList()
+                .flatMap(users -> {
+                    ServerResponse.BodyBuilder response = ReactiveFilmHandler.ok(request);
+                    if (users.size() == pageSize) {
+                        response.header(CollectionSupport.NEXT_CURSOR_HEADER,
+                                String.valueOf(users.get(users.size() - 1).getId()));
+                    }
+                    return response.bodyValue(users);
+                });
+    }
+
+    public Mono<ServerResponse> getFriends(ServerRequest request) {
+        return userStorage.getFriends(ReactiveFilmHandler.pathId(request))
+                .collectList()
+                .flatMap(friends -> ReactiveFilmHandler.ok(request).bodyValue(friends));
+    }
+
+    public Mono<ServerResponse> exportUsers(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userStorage.exportUsers(), User.class);
+    }
+}
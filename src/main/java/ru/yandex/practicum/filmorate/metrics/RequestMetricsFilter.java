@@ -0,0 +1,135 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Set;
+
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_STATEMENTS = "filmorate.http.sql.statements";
+    public static final String VIOLATIONS = "filmorate.sql.budget.violations";
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+
+    private static final String SCOPE_ATTRIBUTE = RequestMetricsFilter.class.getName() + ".scope";
+
+    private final SqlStatementMetrics sqlStatementMetrics;
+    private final MeterRegistry registry;
+    private final Set<String> unbudgeted;
+
+    public RequestMetricsFilter(SqlStatementMetrics sqlStatementMetrics,
+                                MeterRegistry registry,
+                                @Value("${filmorate.sql.budget.exclude:}") Set<String> unbudgeted) {
+        this.sqlStatementMetrics = sqlStatementMetrics;
+        this.registry = registry;
+        this.unbudgeted = unbudgeted;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatementScope scope = (SqlStatementScope) request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope == null) {
+            String name = request.getMethod() + " " + request.getRequestURI();
+            scope = unbudgeted.contains(request.getRequestURI())
+                    ? sqlStatementMetrics.open(name, 0, 0, false)
+                    : sqlStatementMetrics.open(name);
+        }
+        StatementCountResponse countingResponse = new StatementCountResponse(response, scope);
+        try {
+            chain.doFilter(request, countingResponse);
+        } finally {
+            scope.close();
+            if (isAsyncStarted(request)) {
+                request.setAttribute(SCOPE_ATTRIBUTE, scope);
+            } else {
+                request.removeAttribute(SCOPE_ATTRIBUTE);
+                countingResponse.addCountHeader();
+                record(request, scope);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatementScope scope) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        DistributionSummary.builder(REQUEST_STATEMENTS)
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(scope.count());
+        if (scope.violation() != null) {
+            registry.counter(VIOLATIONS, "method", request.getMethod(), "uri", uri).increment();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    private static class StatementCountResponse extends HttpServletResponseWrapper {
+        private final SqlStatementScope scope;
+        private boolean headerAdded;
+
+        StatementCountResponse(HttpServletResponse response, SqlStatementScope scope) {
+            super(response);
+            this.scope = scope;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addCountHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addCountHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addCountHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addCountHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addCountHeader();
+            super.sendError(sc, msg);
+        }
+
+        void addCountHeader() {
+            if (!headerAdded && !isCommitted()) {
+                headerAdded = true;
+                setHeader(STATEMENTS_HEADER, String.valueOf(scope.count()));
+            }
+        }
+    }
+}
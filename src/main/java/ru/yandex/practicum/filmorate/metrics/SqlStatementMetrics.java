@@ -0,0 +1,136 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.Set;
+import java.util.function.Supplier;
+
+@Component
+public class SqlStatementMetrics implements BeanPostProcessor {
+
+    public static final String STATEMENTS = "filmorate.sql.statements";
+
+    private static final Set<String> STATEMENT_METHODS = Set.of("prepareStatement", "createStatement", "prepareCall");
+
+    private final ObjectProvider<MeterRegistry> registry;
+    private final int maxStatements;
+    private final int maxRepeats;
+    private final boolean failOnViolation;
+    private final ThreadLocal<SqlStatementScope> current = new ThreadLocal<>();
+    private volatile Counter statements;
+
+    public SqlStatementMetrics(ObjectProvider<MeterRegistry> registry,
+                               @Value("${filmorate.sql.budget.max-statements:10}") int maxStatements,
+                               @Value("${filmorate.sql.budget.max-repeats:3}") int maxRepeats,
+                               @Value("${filmorate.sql.budget.fail:false}") boolean failOnViolation) {
+        this.registry = registry;
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+        this.failOnViolation = failOnViolation;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource) {
+            return wrap((DataSource) bean);
+        }
+        return bean;
+    }
+
+    public SqlStatementScope open(String name) {
+        return open(name, maxStatements, maxRepeats, failOnViolation);
+    }
+
+    public SqlStatementScope open(String name, int maxStatements, int maxRepeats, boolean failOnViolation) {
+        SqlStatementScope scope = new SqlStatementScope(name, current.get(), maxStatements, maxRepeats,
+                failOnViolation, this::close);
+        current.set(scope);
+        return scope;
+    }
+
+    public <T> Supplier<T> propagate(Supplier<T> task) {
+        SqlStatementScope scope = current.get();
+        return () -> {
+            SqlStatementScope previous = current.get();
+            current.set(scope);
+            try {
+                return task.get();
+            } finally {
+                current.set(previous);
+            }
+        };
+    }
+
+    private void close(SqlStatementScope scope) {
+        if (current.get() == scope) {
+            if (scope.getParent() == null) {
+                current.remove();
+            } else {
+                current.set(scope.getParent());
+            }
+        }
+    }
+
+    private void onStatement(Object[] args) {
+        SqlStatementScope scope = current.get();
+        if (scope != null) {
+            String shape = args != null && args.length > 0 && args[0] instanceof String
+                    ? SqlStatementScope.shape((String) args[0])
+                    : "<statement>";
+            for (; scope != null; scope = scope.getParent()) {
+                scope.record(shape);
+            }
+        }
+        Counter counter = statements;
+        if (counter == null) {
+            MeterRegistry meterRegistry = registry.getIfAvailable();
+            if (meterRegistry == null) {
+                return;
+            }
+            counter = Counter.builder(STATEMENTS).register(meterRegistry);
+            statements = counter;
+        }
+        counter.increment();
+    }
+
+    private DataSource wrap(DataSource dataSource) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(dataSource, method, args);
+                    if (result instanceof Connection) {
+                        return wrap((Connection) result);
+                    }
+                    return result;
+                });
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (STATEMENT_METHODS.contains(method.getName())) {
+                        onStatement(args);
+                    }
+                    return invoke(connection, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
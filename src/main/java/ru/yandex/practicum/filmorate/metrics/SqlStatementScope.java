@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.exception.SqlBudgetExceededException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+@Slf4j
+public class SqlStatementScope implements AutoCloseable {
+
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final String name;
+    private final SqlStatementScope parent;
+    private final int maxStatements;
+    private final int maxRepeats;
+    private final boolean failOnViolation;
+    private final Consumer<SqlStatementScope> onClose;
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private int count;
+    private int repeats;
+    private String violation;
+
+    SqlStatementScope(String name, SqlStatementScope parent, int maxStatements, int maxRepeats,
+                      boolean failOnViolation, Consumer<SqlStatementScope> onClose) {
+        this.name = name;
+        this.parent = parent;
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+        this.failOnViolation = failOnViolation;
+        this.onClose = onClose;
+    }
+
+    public static String shape(String sql) {
+        String shape = PARAMETER_LIST.matcher(sql).replaceAll("?");
+        shape = NUMBER.matcher(shape).replaceAll("?");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int repeats() {
+        return repeats;
+    }
+
+    public String violation() {
+        return violation;
+    }
+
+    public Map<String, Integer> shapes() {
+        return new HashMap<>(shapes);
+    }
+
+    @Override
+    public void close() {
+        onClose.accept(this);
+    }
+
+    SqlStatementScope getParent() {
+        return parent;
+    }
+
+    void record(String shape) {
+        count++;
+        int shapeCount = shapes.merge(shape, 1, Integer::sum);
+        repeats = Math.max(repeats, shapeCount);
+        if (maxStatements > 0 && count == maxStatements + 1) {
+            violate(String.format("%s ran more than %d SQL statements.", name, maxStatements));
+        }
+        if (maxRepeats > 0 && shapeCount == maxRepeats + 1) {
+            violate(String.format("%s ran the same SQL statement more than %d times, possible N+1: %s",
+                    name, maxRepeats, shape));
+        }
+    }
+
+    private void violate(String message) {
+        if (violation == null) {
+            violation = message;
+        }
+        if (failOnViolation) {
+            throw new SqlBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+}
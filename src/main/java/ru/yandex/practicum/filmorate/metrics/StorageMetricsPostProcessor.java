@@ -0,0 +1,114 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Component
+public class StorageMetricsPostProcessor implements BeanPostProcessor {
+
+    public static final String TIMER = "filmorate.storage";
+    public static final String ROWS = "filmorate.storage.rows";
+
+    private static final List<Class<?>> STORAGES = List.of(
+            FilmStorage.class, UserStorage.class, GenreStorage.class, MpaStorage.class);
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    public StorageMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        for (Class<?> storage : STORAGES) {
+            if (storage.isInstance(bean)) {
+                ProxyFactory factory = new ProxyFactory(bean);
+                factory.setProxyTargetClass(true);
+                factory.addAdvice(new StorageInterceptor(storage));
+                return factory.getProxy();
+            }
+        }
+        return bean;
+    }
+
+    private class StorageInterceptor implements MethodInterceptor {
+        private final String storage;
+        private final Set<String> methods;
+        private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+        private final Map<Method, Map<Class<?>, Timer>> failureTimers = new ConcurrentHashMap<>();
+        private final Map<Method, DistributionSummary> rows = new ConcurrentHashMap<>();
+
+        StorageInterceptor(Class<?> storage) {
+            this.storage = storage.getSimpleName();
+            this.methods = Arrays.stream(storage.getMethods()).map(Method::getName).collect(Collectors.toSet());
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            MeterRegistry meterRegistry = registry.getIfAvailable();
+            Method method = invocation.getMethod();
+            if (meterRegistry == null || !methods.contains(method.getName())) {
+                return invocation.proceed();
+            }
+            long start = System.nanoTime();
+            try {
+                Object result = invocation.proceed();
+                timers.computeIfAbsent(method, m -> timer(meterRegistry, m, "success"))
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                int count = rowCount(result);
+                if (count >= 0) {
+                    rows.computeIfAbsent(method, m -> DistributionSummary.builder(ROWS)
+                                    .tag("storage", storage)
+                                    .tag("method", m.getName())
+                                    .register(meterRegistry))
+                            .record(count);
+                }
+                return result;
+            } catch (Throwable e) {
+                failureTimers.computeIfAbsent(method, m -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(e.getClass(), type -> timer(meterRegistry, method, type.getSimpleName()))
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+        }
+
+        private Timer timer(MeterRegistry meterRegistry, Method method, String outcome) {
+            return Timer.builder(TIMER)
+                    .tag("storage", storage)
+                    .tag("method", method.getName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+
+        private int rowCount(Object result) {
+            if (result instanceof Collection) {
+                return ((Collection<?>) result).size();
+            }
+            if (result instanceof int[]) {
+                return ((int[]) result).length;
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+public class BulkResult {
+
+    private int total;
+    private int imported;
+    private final List<BulkError> errors = new ArrayList<>();
+
+    public BulkResult(int total) {
+        this.total = total;
+    }
+
+    public void addImported(int count) {
+        imported += count;
+    }
+
+    public void addError(int index, String error) {
+        errors.add(new BulkError(index, error));
+    }
+
+    public void addErrors(List<Integer> indexes, String error) {
+        for (Integer index : indexes) {
+            addError(index, error);
+        }
+    }
+
+    public void addRejected(String error) {
+        addError(total++, error);
+    }
+
+    public void merge(BulkResult chunk) {
+        for (BulkError error : chunk.getErrors()) {
+            addError(total + error.getIndex(), error.getError());
+        }
+        total += chunk.getTotal();
+        imported += chunk.getImported();
+    }
+}
@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.model;
+
+import ru.yandex.practicum.filmorate.exception.IncorrectParameterException;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Function;
+
+public final class Fields {
+
+    public static final String FILTER = "fields";
+
+    private Fields() {
+    }
+
+    static <E extends Enum<E>> Set<E> parse(String fields, Class<E> type, Function<E, String> property, E id) {
+        if (fields == null) {
+            return EnumSet.allOf(type);
+        }
+        Set<E> parsed = EnumSet.of(id);
+        for (String name : fields.split(",")) {
+            E field = EnumSet.allOf(type).stream()
+                    .filter(candidate -> property.apply(candidate).equals(name.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new IncorrectParameterException("fields"));
+            parsed.add(field);
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class FilmExport {
+
+    @JsonUnwrapped
+    private Film film;
+
+    private Integer likes;
+}
@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum FilmField {
+    ID("id"),
+    NAME("name"),
+    DESCRIPTION("description"),
+    RELEASE_DATE("releaseDate"),
+    DURATION("duration"),
+    MPA("mpa"),
+    GENRES("genres");
+
+    public static final Set<FilmField> ALL = Collections.unmodifiableSet(EnumSet.allOf(FilmField.class));
+
+    private final String property;
+
+    FilmField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static Set<FilmField> parse(String fields) {
+        return Fields.parse(fields, FilmField.class, FilmField::getProperty, ID);
+    }
+}
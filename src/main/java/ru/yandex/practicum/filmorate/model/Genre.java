@@ -1,17 +1,19 @@
 package ru.yandex.practicum.filmorate.model;
 
 import lombok.Builder;
-import lombok.Data;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
 
 import javax.validation.constraints.NotNull;
 
-@Data
+@Value
 @Builder
+@Jacksonized
 public class Genre {
 
     @NotNull
-    private Integer id;
+    Integer id;
 
     @NotNull
-    private String name;
+    String name;
 }
@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum UserField {
+    ID("id"),
+    EMAIL("email"),
+    LOGIN("login"),
+    NAME("name"),
+    BIRTHDAY("birthday");
+
+    public static final Set<UserField> ALL = Collections.unmodifiableSet(EnumSet.allOf(UserField.class));
+
+    private final String property;
+
+    UserField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static Set<UserField> parse(String fields) {
+        return Fields.parse(fields, UserField.class, UserField::getProperty, ID);
+    }
+}
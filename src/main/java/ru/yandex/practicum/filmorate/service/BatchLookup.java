@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.exception.IncorrectParameterException;
+import ru.yandex.practicum.filmorate.model.Batch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public final class BatchLookup {
+
+    private BatchLookup() {
+    }
+
+    public static List<Integer> parseIds(String ids, int maxSize) {
+        if (ids == null || ids.isBlank()) {
+            throw new IncorrectParameterException("ids");
+        }
+        Set<Integer> parsed = new LinkedHashSet<>();
+        for (String id : ids.split(",")) {
+            try {
+                parsed.add(Integer.valueOf(id.trim()));
+            } catch (NumberFormatException e) {
+                throw new IncorrectParameterException("ids");
+            }
+        }
+        if (parsed.size() > maxSize) {
+            throw new IncorrectParameterException("ids");
+        }
+        return new ArrayList<>(parsed);
+    }
+
+    public static <T> Batch<T> collect(List<Integer> ids, Map<Integer, T> found) {
+        List<T> items = new ArrayList<>(found.size());
+        List<Integer> missingIds = new ArrayList<>();
+        for (Integer id : ids) {
+            T item = found.get(id);
+            if (item == null) {
+                missingIds.add(id);
+            } else {
+                items.add(item);
+            }
+        }
+        return new Batch<>(items, missingIds);
+    }
+}
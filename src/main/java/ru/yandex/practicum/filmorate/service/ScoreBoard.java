@@ -0,0 +1,191 @@
+package ru.yandex.practicum.filmorate.service;
+
+/**
+ * Per-request score accumulator keyed by positive ids. Scores live in an open addressing table sized
+ * to the ids touched by the request rather than to the largest id, and {@link #reset()} drops tables
+ * that grew past {@code MAX_RETAINED_CAPACITY} so a pooled instance does not keep a peak allocation.
+ */
+public class ScoreBoard {
+
+    private static final int EXCLUDED = -1;
+    private static final int FREE = 0;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_RETAINED_CAPACITY = 1 << 16;
+
+    private int[] keys = new int[INITIAL_CAPACITY];
+    private int[] scores = new int[INITIAL_CAPACITY];
+    private int[] touched = new int[INITIAL_CAPACITY / 2];
+    private int touchedSize;
+    private int excludedSize;
+
+    public void exclude(int id) {
+        int slot = touch(id);
+        if (scores[slot] != EXCLUDED) {
+            scores[slot] = EXCLUDED;
+            excludedSize++;
+        }
+    }
+
+    public void add(int id, int score) {
+        if (score <= 0) {
+            return;
+        }
+        int slot = touch(id);
+        if (scores[slot] != EXCLUDED) {
+            scores[slot] += score;
+        }
+    }
+
+    public int size() {
+        return touchedSize - excludedSize;
+    }
+
+    public int[] ids() {
+        int[] ids = new int[size()];
+        int count = 0;
+        for (int i = 0; i < touchedSize; i++) {
+            if (scores[touched[i]] > 0) {
+                ids[count++] = keys[touched[i]];
+            }
+        }
+        return ids;
+    }
+
+    public int[] top(int limit) {
+        TopK top = new TopK(limit);
+        for (int i = 0; i < touchedSize; i++) {
+            int slot = touched[i];
+            if (scores[slot] > 0) {
+                top.offer(keys[slot], scores[slot]);
+            }
+        }
+        return top.ids();
+    }
+
+    public void reset() {
+        if (keys.length > MAX_RETAINED_CAPACITY) {
+            keys = new int[INITIAL_CAPACITY];
+            scores = new int[INITIAL_CAPACITY];
+            touched = new int[INITIAL_CAPACITY / 2];
+        } else {
+            for (int i = 0; i < touchedSize; i++) {
+                keys[touched[i]] = FREE;
+                scores[touched[i]] = 0;
+            }
+        }
+        touchedSize = 0;
+        excludedSize = 0;
+    }
+
+    private int touch(int id) {
+        int mask = keys.length - 1;
+        int slot = index(id, mask);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == id) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if ((touchedSize + 1) * 2 > keys.length) {
+            grow();
+            return touch(id);
+        }
+        keys[slot] = id;
+        touched[touchedSize++] = slot;
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldScores = scores;
+        int[] oldTouched = touched;
+        int size = touchedSize;
+        keys = new int[oldKeys.length * 2];
+        scores = new int[oldKeys.length * 2];
+        touched = new int[oldKeys.length];
+        touchedSize = 0;
+        int mask = keys.length - 1;
+        for (int i = 0; i < size; i++) {
+            int id = oldKeys[oldTouched[i]];
+            int slot = index(id, mask);
+            while (keys[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = id;
+            scores[slot] = oldScores[oldTouched[i]];
+            touched[touchedSize++] = slot;
+        }
+    }
+
+    private static int index(int id, int mask) {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    public static class TopK {
+        private final long[] heap;
+        private int size;
+
+        public TopK(int limit) {
+            heap = new long[Math.max(limit, 0)];
+        }
+
+        public void offer(int id, int score) {
+            if (heap.length == 0) {
+                return;
+            }
+            long key = ((long) score << 32) | (Integer.MAX_VALUE - id);
+            if (size < heap.length) {
+                heap[size] = key;
+                siftUp(size++);
+            } else if (key > heap[0]) {
+                heap[0] = key;
+                siftDown(size);
+            }
+        }
+
+        public int[] ids() {
+            int[] ids = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                ids[i] = Integer.MAX_VALUE - (int) heap[0];
+                heap[0] = heap[i];
+                siftDown(i);
+            }
+            size = 0;
+            return ids;
+        }
+
+        private void siftUp(int index) {
+            long key = heap[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (heap[parent] <= key) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
+            }
+            heap[index] = key;
+        }
+
+        private void siftDown(int size) {
+            long key = heap[0];
+            int index = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= key) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = key;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package ru.yandex.practicum.filmorate.service.film;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.util.ResourceVersions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Films keyed by id. Every entry remembers the film version read before it was loaded, so a load
+ * that raced with a write is dropped on the next read instead of serving the old row until it expires.
+ */
+@Component
+@Slf4j
+public class FilmCache {
+
+    private final LoadingCache<Integer, Snapshot> films;
+    private final ResourceVersions versions;
+
+    public FilmCache(FilmStorage filmStorage,
+                     ResourceVersions versions,
+                     MeterRegistry registry,
+                     @Value("${filmorate.films.cache.max-size:10000}") long maxSize,
+                     @Value("${filmorate.films.cache.ttl:5m}") Duration ttl) {
+        this.versions = versions;
+        this.films = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public Snapshot load(Integer id) {
+                        long version = versions.filmVersion(id);
+                        return new Snapshot(filmStorage.getFilmById(id), version);
+                    }
+
+                    @Override
+                    public Map<Integer, Snapshot> loadAll(Iterable<? extends Integer> ids) {
+                        List<Integer> missing = new ArrayList<>();
+                        Map<Integer, Long> before = new HashMap<>();
+                        ids.forEach(id -> {
+                            missing.add(id);
+                            before.put(id, versions.filmVersion(id));
+                        });
+                        Map<Integer, Snapshot> loaded = new HashMap<>();
+                        filmStorage.getFilmsByIds(missing).forEach(film ->
+                                loaded.put(film.getId(), new Snapshot(film, before.get(film.getId()))));
+                        return loaded;
+                    }
+                });
+        CaffeineCacheMetrics.monitor(registry, films, "films");
+    }
+
+    public Film get(Integer id) {
+        Snapshot snapshot = films.get(id);
+        if (isStale(id, snapshot)) {
+            films.asMap().remove(id, snapshot);
+            snapshot = films.get(id);
+        }
+        return snapshot.copy();
+    }
+
+    public Map<Integer, Film> getAll(List<Integer> ids) {
+        Map<Integer, Snapshot> snapshots = new HashMap<>(films.getAll(ids));
+        List<Integer> stale = new ArrayList<>();
+        snapshots.forEach((id, snapshot) -> {
+            if (isStale(id, snapshot)) {
+                films.asMap().remove(id, snapshot);
+                stale.add(id);
+            }
+        });
+        if (!stale.isEmpty()) {
+            snapshots.putAll(films.getAll(stale));
+        }
+        Map<Integer, Film> copies = new HashMap<>();
+        snapshots.forEach((id, snapshot) -> copies.put(id, snapshot.copy()));
+        return copies;
+    }
+
+    public void invalidate(Integer id) {
+        films.invalidate(id);
+        log.debug("Film{} evicted from cache.", id);
+    }
+
+    public void invalidateAll() {
+        films.invalidateAll();
+        log.debug("Film cache cleared.");
+    }
+
+    public CacheStats stats() {
+        return films.stats();
+    }
+
+    private boolean isStale(Integer id, Snapshot snapshot) {
+        return snapshot.version != versions.filmVersion(id);
+    }
+
+    private static final class Snapshot {
+
+        private final Film film;
+        private final long version;
+
+        private Snapshot(Film film, long version) {
+            this.film = film.toBuilder()
+                    .genres(film.getGenres() == null ? null : List.copyOf(film.getGenres()))
+                    .build();
+            this.version = version;
+        }
+
+        private Film copy() {
+            return film.toBuilder()
+                    .genres(film.getGenres() == null ? null : new ArrayList<>(film.getGenres()))
+                    .build();
+        }
+    }
+}
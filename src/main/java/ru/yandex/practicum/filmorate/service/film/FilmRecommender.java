@@ -0,0 +1,150 @@
+package ru.yandex.practicum.filmorate.service.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.service.ScoreBoard;
+import ru.yandex.practicum.filmorate.storage.film.LikeIndex;
+
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+@Component
+@Slf4j
+public class FilmRecommender {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final LikeIndex likeIndex;
+    private final int neighbours;
+    private final int maxCandidates;
+    private final int taskThreshold;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<ScoreBoard> boards = ThreadLocal.withInitial(ScoreBoard::new);
+
+    public FilmRecommender(LikeIndex likeIndex,
+                           @Value("${filmorate.recommendations.neighbours:50}") int neighbours,
+                           @Value("${filmorate.recommendations.max-candidates:20000}") int maxCandidates,
+                           @Value("${filmorate.recommendations.task-threshold:512}") int taskThreshold,
+                           @Value("${filmorate.recommendations.parallelism:0}") int parallelism) {
+        this.likeIndex = likeIndex;
+        this.neighbours = neighbours;
+        this.maxCandidates = maxCandidates;
+        this.taskThreshold = taskThreshold;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdown();
+    }
+
+    public int[] recommend(int userId, int limit) {
+        int[] liked = likeIndex.getLikedFilms(userId);
+        if (liked.length == 0 || limit <= 0) {
+            return EMPTY;
+        }
+        int[] candidates = collectCandidates(userId, liked);
+        int[] similarity = new int[candidates.length];
+        pool.invoke(new SimilarityTask(liked, candidates, similarity, 0, candidates.length));
+
+        ScoreBoard.TopK nearest = new ScoreBoard.TopK(neighbours);
+        for (int i = 0; i < candidates.length; i++) {
+            nearest.offer(candidates[i], similarity[i]);
+        }
+        int[] neighbourIds = nearest.ids();
+
+        ScoreBoard board = boards.get();
+        try {
+            for (int filmId : liked) {
+                board.exclude(filmId);
+            }
+            for (int neighbourId : neighbourIds) {
+                int[] films = likeIndex.getLikedFilms(neighbourId);
+                int overlap = intersectionSize(liked, films);
+                for (int filmId : films) {
+                    board.add(filmId, overlap);
+                }
+            }
+            int[] recommended = board.top(limit);
+            log.info("Recommendations for user{}: {} candidates, {} neighbours, {} films.",
+                    userId, candidates.length, neighbourIds.length, recommended.length);
+            return recommended;
+        } finally {
+            board.reset();
+        }
+    }
+
+    private int[] collectCandidates(int userId, int[] liked) {
+        long[] byPopularity = new long[liked.length];
+        for (int i = 0; i < liked.length; i++) {
+            byPopularity[i] = ((long) likeIndex.getLikers(liked[i]).length << 32) | liked[i];
+        }
+        Arrays.sort(byPopularity);
+
+        ScoreBoard board = boards.get();
+        try {
+            board.exclude(userId);
+            for (long entry : byPopularity) {
+                for (int likerId : likeIndex.getLikers((int) entry)) {
+                    if (board.size() >= maxCandidates) {
+                        return board.ids();
+                    }
+                    board.add(likerId, 1);
+                }
+            }
+            return board.ids();
+        } finally {
+            board.reset();
+        }
+    }
+
+    private static int intersectionSize(int[] first, int[] second) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    private class SimilarityTask extends RecursiveAction {
+        private final int[] liked;
+        private final int[] candidates;
+        private final int[] similarity;
+        private final int from;
+        private final int to;
+
+        SimilarityTask(int[] liked, int[] candidates, int[] similarity, int from, int to) {
+            this.liked = liked;
+            this.candidates = candidates;
+            this.similarity = similarity;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= taskThreshold) {
+                for (int i = from; i < to; i++) {
+                    similarity[i] = intersectionSize(liked, likeIndex.getLikedFilms(candidates[i]));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SimilarityTask(liked, candidates, similarity, from, middle),
+                    new SimilarityTask(liked, candidates, similarity, middle, to));
+        }
+    }
+}
@@ -1,17 +1,36 @@
 package ru.yandex.practicum.filmorate.service.film;
 
+import ru.yandex.practicum.filmorate.model.Batch;
+import ru.yandex.practicum.filmorate.model.BulkResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmExport;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.Likes;
+import ru.yandex.practicum.filmorate.model.Page;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface FilmService {
 
     Collection<Film> getAllFilms();
 
+    Page<Film> getFilms(Integer after, Integer limit, Set<FilmField> fields);
+
+    void exportFilms(Consumer<FilmExport> consumer);
+
     Film getFilmById(Integer id);
 
+    Batch<Film> getFilmsByIds(String ids);
+
+    String getFilmTag(Integer id);
+
     Film addFilm(Film film);
 
+    BulkResult addFilms(List<Film> films);
+
     void deleteFilm(Integer id);
 
     Film updateFilm(Film film);
@@ -20,5 +39,15 @@ public interface FilmService {
 
     void deleteLike(Integer id, Integer userId);
 
-    Collection<Film> getPopular(Integer count);
+    BulkResult addLikes(List<Likes> likes);
+
+    Collection<Film> getPopular(Integer count, Integer genreId, Integer year);
+
+    String getPopularTag();
+
+    Collection<Film> getTrending(Integer count, String window);
+
+    Collection<Film> searchFilms(String query, Integer limit);
+
+    Collection<Film> getRecommendations(Integer userId, Integer limit);
 }
@@ -1,31 +1,146 @@
 package ru.yandex.practicum.filmorate.service.film;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.IncorrectParameterException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Batch;
+import ru.yandex.practicum.filmorate.model.BulkResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmExport;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Likes;
+import ru.yandex.practicum.filmorate.model.Page;
+import ru.yandex.practicum.filmorate.service.BatchLookup;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.TrendingCounters;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.storage.util.ResourceVersions;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class FilmServiceImpl implements FilmService {
 
     private final FilmStorage filmStorage;
+    private final MpaStorage mpaStorage;
+    private final GenreStorage genreStorage;
+    private final Validator validator;
+    private final LikeWriteBuffer likeWriteBuffer;
+    private final UserStorage userStorage;
+    private final FilmRecommender filmRecommender;
+    private final FilmCache filmCache;
+    private final ResourceVersions resourceVersions;
+    private final TrendingCounters trendingCounters;
+
+    @Value("${filmorate.page.max-limit:1000}")
+    private int maxLimit;
+
+    @Value("${filmorate.bulk.chunk-size:1000}")
+    private int chunkSize;
 
     @Override
     public Collection<Film> getAllFilms() {
         return filmStorage.getAllFilms();
     }
 
+    @Override
+    public Page<Film> getFilms(Integer after, Integer limit, Set<FilmField> fields) {
+        if (limit != null && limit <= 0) {
+            throw new IncorrectParameterException("limit");
+        }
+        int pageSize = limit == null ? maxLimit : Math.min(limit, maxLimit);
+        List<Film> films = filmStorage.getFilms(after, pageSize, fields);
+        Integer nextCursor = films.size() == pageSize ? films.get(films.size() - 1).getId() : null;
+        return new Page<>(films, nextCursor);
+    }
+
+    @Override
+    public void exportFilms(Consumer<FilmExport> consumer) {
+        filmStorage.exportFilms(consumer);
+    }
+
     @Override
     public Film getFilmById(Integer id) {
-        return filmStorage.getFilmById(id);
+        return filmCache.get(id);
+    }
+
+    @Override
+    public Batch<Film> getFilmsByIds(String ids) {
+        List<Integer> filmIds = BatchLookup.parseIds(ids, maxLimit);
+        return BatchLookup.collect(filmIds, filmCache.getAll(filmIds));
+    }
+
+    @Override
+    public String getFilmTag(Integer id) {
+        return resourceVersions.filmTag(id);
+    }
+
+    @Override
+    public Collection<Film> getPopular(Integer count, Integer genreId, Integer year) {
+        if (count <= 0) {
+            throw new IncorrectParameterException("count");
+        }
+        return filmStorage.getPopular(Math.min(count, maxLimit), genreId, year);
     }
 
     @Override
-    public Collection<Film> getPopular(Integer count) {
-        return filmStorage.getPopular(count);
+    public String getPopularTag() {
+        return resourceVersions.filmsTag();
+    }
+
+    @Override
+    public Collection<Film> getTrending(Integer count, String window) {
+        if (count <= 0) {
+            throw new IncorrectParameterException("count");
+        }
+        Duration duration;
+        try {
+            duration = DurationStyle.detectAndParse(window);
+        } catch (IllegalArgumentException e) {
+            throw new IncorrectParameterException("window");
+        }
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(trendingCounters.horizon()) > 0) {
+            throw new IncorrectParameterException("window");
+        }
+        return filmStorage.getFilmsByIds(trendingCounters.top(Math.min(count, maxLimit), duration));
+    }
+
+    @Override
+    public Collection<Film> searchFilms(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new IncorrectParameterException("q");
+        }
+        if (limit <= 0) {
+            throw new IncorrectParameterException("limit");
+        }
+        return filmStorage.searchFilms(query, Math.min(limit, maxLimit));
+    }
+
+    @Override
+    public Collection<Film> getRecommendations(Integer userId, Integer limit) {
+        if (limit <= 0) {
+            throw new IncorrectParameterException("limit");
+        }
+        userStorage.checkUserExist(userId);
+        int[] filmIds = filmRecommender.recommend(userId, Math.min(limit, maxLimit));
+        return filmStorage.getFilmsByIds(Arrays.stream(filmIds).boxed().collect(Collectors.toList()));
     }
 
     @Override
@@ -33,23 +148,122 @@ public class FilmServiceImpl implements FilmService {
         return filmStorage.addFilm(film);
     }
 
+    @Override
+    public BulkResult addFilms(List<Film> films) {
+        BulkResult result = new BulkResult(films.size());
+        List<Film> validFilms = new ArrayList<>(films.size());
+        List<Integer> indexes = new ArrayList<>(films.size());
+        for (int i = 0; i < films.size(); i++) {
+            String error = validate(films.get(i));
+            if (error == null) {
+                validFilms.add(films.get(i));
+                indexes.add(i);
+            } else {
+                result.addError(i, error);
+            }
+        }
+        for (int from = 0; from < validFilms.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, validFilms.size());
+            try {
+                result.addImported(filmStorage.addFilms(validFilms.subList(from, to)).size());
+            } catch (DataAccessException e) {
+                result.addErrors(indexes.subList(from, to), "Chunk not imported: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public BulkResult addLikes(List<Likes> likes) {
+        BulkResult result = new BulkResult(likes.size());
+        List<Likes> validLikes = new ArrayList<>(likes.size());
+        List<Integer> indexes = new ArrayList<>(likes.size());
+        for (int i = 0; i < likes.size(); i++) {
+            Likes like = likes.get(i);
+            if (like == null || like.getUserId() == null || like.getFilmId() == null) {
+                result.addError(i, "User id and film id must not be null");
+            } else {
+                validLikes.add(like);
+                indexes.add(i);
+            }
+        }
+        for (int from = 0; from < validLikes.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, validLikes.size());
+            int[] counts;
+            try {
+                counts = filmStorage.addLikes(validLikes.subList(from, to));
+            } catch (DataAccessException e) {
+                result.addErrors(indexes.subList(from, to), "Chunk not imported: " + e.getMostSpecificCause().getMessage());
+                continue;
+            }
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    result.addImported(1);
+                } else {
+                    Likes like = validLikes.get(from + i);
+                    result.addError(indexes.get(from + i), String.format("User with id:%s or film with id:%s not found, " +
+                            "or like already exists.", like.getUserId(), like.getFilmId()));
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public Film updateFilm(Film film) {
-        return filmStorage.updateFilm(film);
+        Film updated = filmStorage.updateFilm(film);
+        filmCache.invalidate(updated.getId());
+        return updated;
     }
 
     @Override
     public void deleteFilm(Integer id) {
         filmStorage.deleteFilm(id);
+        filmCache.invalidate(id);
     }
 
     @Override
     public void addLike(Integer id, Integer userId) {
+        if (likeWriteBuffer.isEnabled()) {
+            likeWriteBuffer.addLike(id, userId);
+            return;
+        }
         filmStorage.addLike(id, userId);
     }
 
     @Override
     public void deleteLike(Integer id, Integer userId) {
+        if (likeWriteBuffer.isEnabled()) {
+            likeWriteBuffer.deleteLike(id, userId);
+            return;
+        }
         filmStorage.deleteLike(id, userId);
     }
+
+    private String validate(Film film) {
+        if (film == null) {
+            return "Film must not be null";
+        }
+        Set<ConstraintViolation<Film>> violations = validator.validate(film);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (film.getReleaseDate() == null || film.getDuration() == null) {
+            return "Film release date and duration must not be null";
+        }
+        try {
+            mpaStorage.checkMpaExist(film.getMpa().getId());
+            if (film.getGenres() != null) {
+                for (Genre genre : film.getGenres()) {
+                    genreStorage.checkGenreExist(genre.getId());
+                }
+            }
+        } catch (NotFoundException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
 }
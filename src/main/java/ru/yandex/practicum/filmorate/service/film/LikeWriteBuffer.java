@@ -0,0 +1,230 @@
+package ru.yandex.practicum.filmorate.service.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ServiceUnavailableException;
+import ru.yandex.practicum.filmorate.model.Likes;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Component
+@Slf4j
+public class LikeWriteBuffer {
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final boolean durableAck;
+    private final long ackTimeoutMs;
+    private final BlockingQueue<LikeOperation> queue;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public LikeWriteBuffer(FilmStorage filmStorage,
+                           UserStorage userStorage,
+                           @Value("${filmorate.likes.buffer.enabled:false}") boolean enabled,
+                           @Value("${filmorate.likes.buffer.capacity:10000}") int capacity,
+                           @Value("${filmorate.likes.buffer.batch-size:1000}") int batchSize,
+                           @Value("${filmorate.likes.buffer.flush-interval-ms:50}") long flushIntervalMs,
+                           @Value("${filmorate.likes.buffer.offer-timeout-ms:100}") long offerTimeoutMs,
+                           @Value("${filmorate.likes.buffer.durable-ack:false}") boolean durableAck,
+                           @Value("${filmorate.likes.buffer.ack-timeout-ms:1000}") long ackTimeoutMs) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.durableAck = durableAck;
+        this.ackTimeoutMs = ackTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void addLike(Integer filmId, Integer userId) {
+        submit(new LikeOperation(filmId, userId, true));
+    }
+
+    public void deleteLike(Integer filmId, Integer userId) {
+        submit(new LikeOperation(filmId, userId, false));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::run, "like-write-buffer");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Like write buffer started. Batch size {}, flush interval {} ms.", batchSize, flushIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.interrupt();
+        flusher.join();
+        List<LikeOperation> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        flush(rest);
+    }
+
+    private void submit(LikeOperation operation) {
+        try {
+            if (!queue.offer(operation, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new ServiceUnavailableException("Too many likes in progress, try again later.");
+            }
+            if (durableAck) {
+                operation.ack.get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Like was not saved, try again later.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof NotFoundException) {
+                throw (NotFoundException) e.getCause();
+            }
+            throw new ServiceUnavailableException("Like was not saved, try again later.");
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException("Like was not saved, try again later.");
+        }
+    }
+
+    private void run() {
+        List<LikeOperation> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                LikeOperation first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    LikeOperation next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<LikeOperation> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<Long, LikeOperation> latest = new LinkedHashMap<>();
+        for (LikeOperation operation : batch) {
+            latest.put(operation.key(), operation);
+        }
+        List<LikeOperation> adds = new ArrayList<>();
+        List<Likes> added = new ArrayList<>();
+        List<Likes> removed = new ArrayList<>();
+        for (LikeOperation operation : latest.values()) {
+            if (operation.like) {
+                adds.add(operation);
+                added.add(operation.toLikes());
+            } else {
+                removed.add(operation.toLikes());
+            }
+        }
+        try {
+            filmStorage.deleteLikes(removed);
+            int[] counts = filmStorage.addLikes(added);
+            Map<Long, NotFoundException> skipped = new HashMap<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    NotFoundException missing = checkExist(adds.get(i));
+                    if (missing != null) {
+                        skipped.put(adds.get(i).key(), missing);
+                    }
+                }
+            }
+            for (LikeOperation operation : batch) {
+                NotFoundException missing = skipped.get(operation.key());
+                if (missing == null) {
+                    operation.ack.complete(null);
+                } else {
+                    operation.ack.completeExceptionally(missing);
+                }
+            }
+            log.info("Likes flushed. Operations {}, added {}, removed {}, skipped {}.",
+                    batch.size(), added.size() - skipped.size(), removed.size(), skipped.size());
+        } catch (RuntimeException e) {
+            log.error("Likes flush failed: {}", e.getMessage());
+            batch.forEach(operation -> operation.ack.completeExceptionally(e));
+        }
+    }
+
+    private NotFoundException checkExist(LikeOperation operation) {
+        try {
+            filmStorage.checkFilmExist(operation.filmId);
+            userStorage.checkUserExist(operation.userId);
+            return null;
+        } catch (NotFoundException e) {
+            return e;
+        }
+    }
+
+    private static class LikeOperation {
+        private final int filmId;
+        private final int userId;
+        private final boolean like;
+        private final CompletableFuture<Void> ack = new CompletableFuture<>();
+
+        LikeOperation(int filmId, int userId, boolean like) {
+            this.filmId = filmId;
+            this.userId = userId;
+            this.like = like;
+        }
+
+        long key() {
+            return ((long) userId << 32) | (filmId & 0xFFFFFFFFL);
+        }
+
+        Likes toLikes() {
+            Likes likes = new Likes();
+            likes.setFilmId(filmId);
+            likes.setUserId(userId);
+            return likes;
+        }
+    }
+}
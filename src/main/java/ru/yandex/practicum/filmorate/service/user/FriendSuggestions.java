@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.service.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.service.ScoreBoard;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@Slf4j
+public class FriendSuggestions {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final UserStorage userStorage;
+    private final int maxLimit;
+    private final AtomicLong version = new AtomicLong();
+    private final Cache<Integer, Suggestions> cache;
+    private final ThreadLocal<ScoreBoard> boards = ThreadLocal.withInitial(ScoreBoard::new);
+
+    public FriendSuggestions(UserStorage userStorage,
+                             @Value("${filmorate.suggestions.max-limit:100}") int maxLimit,
+                             @Value("${filmorate.suggestions.cache-size:10000}") int cacheSize) {
+        this.userStorage = userStorage;
+        this.maxLimit = maxLimit;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    public int[] suggest(Integer userId, int limit) {
+        int size = Math.min(limit, maxLimit);
+        long current = version.get();
+        Suggestions cached = cache.getIfPresent(userId);
+        if (cached == null || !cached.covers(current, size)) {
+            userStorage.checkUserExist(userId);
+            // computing inside the map entry makes a concurrent invalidate(userId) wait for it and
+            // then drop the result, so an answer built from the old graph is never left behind
+            cached = cache.asMap().compute(userId, (id, old) -> {
+                if (old != null && old.covers(current, size)) {
+                    return old;
+                }
+                int[] ids = compute(id, size);
+                log.info("Friend suggestions computed for user{}: {}.", id, ids.length);
+                return new Suggestions(current, size, ids);
+            });
+        }
+        return cached.ids.length <= size ? cached.ids : Arrays.copyOf(cached.ids, size);
+    }
+
+    /**
+     * Drops cached suggestions that read the friend list of {@code userId}: the user's own and those
+     * of its followers, for whom the user is a friend whose friends are candidates.
+     */
+    public void invalidate(int userId) {
+        cache.invalidate(userId);
+        for (int followerId : userStorage.getFollowerIds(userId)) {
+            cache.invalidate(followerId);
+        }
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    private int[] compute(int userId, int limit) {
+        int[] friends = userStorage.getFriendIds(userId);
+        if (friends.length == 0) {
+            return EMPTY;
+        }
+        ScoreBoard board = boards.get();
+        try {
+            board.exclude(userId);
+            for (int friendId : friends) {
+                board.exclude(friendId);
+            }
+            for (int friendId : friends) {
+                for (int candidate : userStorage.getFriendIds(friendId)) {
+                    board.add(candidate, 1);
+                }
+            }
+            return board.top(limit);
+        } finally {
+            board.reset();
+        }
+    }
+
+    private static class Suggestions {
+        private final long version;
+        private final int limit;
+        private final int[] ids;
+
+        Suggestions(long version, int limit, int[] ids) {
+            this.version = version;
+            this.limit = limit;
+            this.ids = ids;
+        }
+
+        boolean covers(long currentVersion, int size) {
+            return version == currentVersion && (limit >= size || ids.length < limit);
+        }
+    }
+}
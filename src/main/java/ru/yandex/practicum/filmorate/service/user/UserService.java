@@ -1,16 +1,34 @@
 package ru.yandex.practicum.filmorate.service.user;
 
+import ru.yandex.practicum.filmorate.model.Batch;
+import ru.yandex.practicum.filmorate.model.BulkResult;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Page;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface UserService {
     Collection<User> getALlUsers();
 
+    Page<User> getUsers(Integer after, Integer limit, Set<UserField> fields);
+
+    void exportUsers(Consumer<User> consumer);
+
     User getUserById(Integer id);
 
+    Batch<User> getUsersByIds(String ids);
+
+    String getUserTag(Integer id);
+
     User addUser(User user);
 
+    BulkResult addUsers(List<User> users);
+
     void deleteUser(Integer id);
 
     User updateUser(User user);
@@ -19,7 +37,13 @@ public interface UserService {
 
     void deleteFriend(Integer id, Integer friendId);
 
-    Collection<User> getFriends(Integer id);
+    BulkResult addFriends(List<Friendship> friendships);
+
+    Collection<User> getFriends(Integer id, Set<UserField> fields);
+
+    String getFriendsTag(Integer id);
 
     Collection<User> getCommonFriends(Integer id, Integer otherId);
+
+    Collection<User> getFriendSuggestions(Integer id, Integer limit);
 }
@@ -1,36 +1,119 @@
 package ru.yandex.practicum.filmorate.service.user;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.IncorrectParameterException;
+import ru.yandex.practicum.filmorate.model.Batch;
+import ru.yandex.practicum.filmorate.model.BulkResult;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Page;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+import ru.yandex.practicum.filmorate.service.BatchLookup;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.storage.util.ResourceVersions;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
     private final UserStorage userStorage;
+    private final Validator validator;
+    private final FriendSuggestions friendSuggestions;
+    private final ResourceVersions resourceVersions;
+
+    @Value("${filmorate.page.max-limit:1000}")
+    private int maxLimit;
+
+    @Value("${filmorate.bulk.chunk-size:1000}")
+    private int chunkSize;
 
     @Override
     public Collection<User> getALlUsers() {
         return userStorage.getAllUsers();
     }
 
+    @Override
+    public Page<User> getUsers(Integer after, Integer limit, Set<UserField> fields) {
+        if (limit != null && limit <= 0) {
+            throw new IncorrectParameterException("limit");
+        }
+        int pageSize = limit == null ? maxLimit : Math.min(limit, maxLimit);
+        List<User> users = userStorage.getUsers(after, pageSize, fields);
+        Integer nextCursor = users.size() == pageSize ? users.get(users.size() - 1).getId() : null;
+        return new Page<>(users, nextCursor);
+    }
+
+    @Override
+    public void exportUsers(Consumer<User> consumer) {
+        userStorage.exportUsers(consumer);
+    }
+
     @Override
     public User getUserById(Integer id) {
         return userStorage.getUserById(id);
     }
 
+    @Override
+    public Batch<User> getUsersByIds(String ids) {
+        List<Integer> userIds = BatchLookup.parseIds(ids, maxLimit);
+        return BatchLookup.collect(userIds, userStorage.getUsersByIds(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity())));
+    }
+
+    @Override
+    public String getUserTag(Integer id) {
+        return resourceVersions.userTag(id);
+    }
+
     @Override
     public User addUser(User user) {
         return userStorage.addUser(user);
     }
 
+    @Override
+    public BulkResult addUsers(List<User> users) {
+        BulkResult result = new BulkResult(users.size());
+        List<User> validUsers = new ArrayList<>(users.size());
+        List<Integer> indexes = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            String error = user != null && user.getBirthday() == null ? "Date of birth must not be null" : validate(user);
+            if (error == null) {
+                validUsers.add(users.get(i));
+                indexes.add(i);
+            } else {
+                result.addError(i, error);
+            }
+        }
+        for (int from = 0; from < validUsers.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, validUsers.size());
+            try {
+                result.addImported(userStorage.addUsers(validUsers.subList(from, to)).size());
+            } catch (DataAccessException e) {
+                result.addErrors(indexes.subList(from, to), "Chunk not imported: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+        return result;
+    }
+
     @Override
     public void deleteUser(Integer id) {
         userStorage.deleteUser(id);
+        friendSuggestions.invalidate();
     }
 
     @Override
@@ -41,20 +124,87 @@ public class UserServiceImpl implements UserService {
     @Override
     public void addFriend(Integer id, Integer friendId) {
         userStorage.addFriend(id, friendId);
+        friendSuggestions.invalidate(id);
     }
 
     @Override
     public void deleteFriend(Integer id, Integer friendId) {
         userStorage.deleteFriend(id, friendId);
+        friendSuggestions.invalidate(id);
+    }
+
+    @Override
+    public BulkResult addFriends(List<Friendship> friendships) {
+        BulkResult result = new BulkResult(friendships.size());
+        List<Friendship> validFriendships = new ArrayList<>(friendships.size());
+        List<Integer> indexes = new ArrayList<>(friendships.size());
+        for (int i = 0; i < friendships.size(); i++) {
+            String error = validate(friendships.get(i));
+            if (error == null) {
+                validFriendships.add(friendships.get(i));
+                indexes.add(i);
+            } else {
+                result.addError(i, error);
+            }
+        }
+        for (int from = 0; from < validFriendships.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, validFriendships.size());
+            int[] counts;
+            try {
+                counts = userStorage.addFriends(validFriendships.subList(from, to));
+            } catch (DataAccessException e) {
+                result.addErrors(indexes.subList(from, to), "Chunk not imported: " + e.getMostSpecificCause().getMessage());
+                continue;
+            }
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    result.addImported(1);
+                } else {
+                    Friendship friendship = validFriendships.get(from + i);
+                    result.addError(indexes.get(from + i), String.format("User with id:%s or id:%s not found, " +
+                            "or friendship already exists.", friendship.getUserId(), friendship.getFriendId()));
+                }
+            }
+        }
+        friendSuggestions.invalidate();
+        return result;
+    }
+
+    @Override
+    public Collection<User> getFriends(Integer id, Set<UserField> fields) {
+        return userStorage.getFriends(id, fields);
     }
 
     @Override
-    public Collection<User> getFriends(Integer id) {
-        return userStorage.getFriends(id);
+    public String getFriendsTag(Integer id) {
+        return resourceVersions.friendsTag(id, userStorage.getFriendIds(id));
     }
 
     @Override
     public Collection<User> getCommonFriends(Integer id, Integer otherId) {
         return userStorage.getCommonFriends(id, otherId);
     }
+
+    @Override
+    public Collection<User> getFriendSuggestions(Integer id, Integer limit) {
+        if (limit <= 0) {
+            throw new IncorrectParameterException("limit");
+        }
+        int[] ids = friendSuggestions.suggest(id, limit);
+        return userStorage.getUsersByIds(Arrays.stream(ids).boxed().collect(Collectors.toList()));
+    }
+
+    private <T> String validate(T value) {
+        if (value == null) {
+            return "Value must not be null";
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(value);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
 }
@@ -0,0 +1,717 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Inverted index over film titles and descriptions. A query token matches a term exactly, as a prefix
+ * or within one edit (typos are found through a single-deletion dictionary); a film must match every
+ * token. A prefix expands to at most 64 terms, the ones found in the most films, so a short prefix keeps
+ * its common completions rather than the alphabetically first ones. Scores are idf weighted, titles
+ * count double, and the total is boosted by log(likes); hits that cannot reach the current top even with
+ * the most liked film's boost are skipped without a likes lookup. A single-token query scores its terms
+ * one by one from the heaviest, so frequent low-idf terms are dropped whole once the top is full. Hits
+ * that cover a large part of the catalogue are ranked by walking films from the most liked down instead
+ * of scanning them, and a term found in very many films also keeps a bitset for constant-time lookups.
+ */
+public class FilmSearchIndex {
+
+    private static final int TITLE = 1;
+    private static final int DESCRIPTION = 2;
+    private static final double EXACT = 1.0;
+    private static final double PREFIX = 0.6;
+    private static final double TYPO = 0.4;
+    private static final double TITLE_WEIGHT = 2.0;
+    private static final int MAX_PREFIX_TERMS = 64;
+    private static final int MIN_TYPO_LENGTH = 4;
+    private static final int MIN_WALK_POSTINGS = 4096;
+    private static final int WALK_COST = 8;
+    private static final int DENSE_POSTINGS = 65536;
+    private static final int BOOST_TABLE_SIZE = 4096;
+
+    private final double likeBoost;
+    private final double[] boosts = new double[BOOST_TABLE_SIZE];
+    private final NavigableMap<String, Term> terms = new TreeMap<>();
+    private final Map<String, List<Term>> deletions = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Term[][] filmTerms = new Term[1024][];
+    private int size;
+
+    public FilmSearchIndex(double likeBoost) {
+        this.likeBoost = likeBoost;
+        for (int likes = 0; likes < BOOST_TABLE_SIZE; likes++) {
+            boosts[likes] = 1 + likeBoost * Math.log1p(likes);
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            deletions.clear();
+            filmTerms = new Term[1024][];
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(int filmId, String title, String description) {
+        Map<String, Integer> fields = new LinkedHashMap<>();
+        tokenize(title).forEach(token -> fields.merge(token, TITLE, (a, b) -> a | b));
+        tokenize(description).forEach(token -> fields.merge(token, DESCRIPTION, (a, b) -> a | b));
+        lock.writeLock().lock();
+        try {
+            unindex(filmId);
+            Term[] indexed = new Term[fields.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> field : fields.entrySet()) {
+                Term term = terms.get(field.getKey());
+                if (term == null) {
+                    term = new Term(field.getKey());
+                    terms.put(term.text, term);
+                    addDeletions(term);
+                }
+                term.add(filmId, field.getValue());
+                indexed[i++] = term;
+            }
+            if (filmId >= filmTerms.length) {
+                filmTerms = Arrays.copyOf(filmTerms, Math.max(filmId + 1, filmTerms.length * 2));
+            }
+            filmTerms[filmId] = indexed;
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int filmId) {
+        lock.writeLock().lock();
+        try {
+            unindex(filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Integer> search(String query, int limit, LikeRanking ranking) {
+        List<String> tokens = tokenize(query);
+        lock.readLock().lock();
+        try {
+            List<Map<Term, Double>> matches = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                Map<Term, Double> expanded = expand(token);
+                if (expanded.isEmpty()) {
+                    return new ArrayList<>();
+                }
+                matches.add(expanded);
+            }
+            if (matches.size() == 1) {
+                return top(matches.get(0), limit, ranking);
+            }
+            matches.sort(Comparator.comparingLong(FilmSearchIndex::postings));
+            long postings = postings(matches.get(0));
+            if (postings >= MIN_WALK_POSTINGS) {
+                // every token is common: look the most liked films up instead of intersecting long postings
+                Conjunction conjunction = new Conjunction(matches);
+                Top top = new Top(limit);
+                if (walkByLikes(conjunction::relevance, conjunction.maxRelevance(),
+                        (int) (postings / (WALK_COST * conjunction.terms)), top, ranking) == Walk.CLOSED) {
+                    return top.drain();
+                }
+            }
+            Hits hits = null;
+            for (Map<Term, Double> expanded : matches) {
+                hits = match(expanded, hits);
+                if (hits.size == 0) {
+                    return new ArrayList<>();
+                }
+            }
+            if (hits == null) {
+                return new ArrayList<>();
+            }
+            Top top = new Top(limit);
+            collect(hits, hits::scoreOf, hits.maxScore(), top, ranking, boost(ranking.maxLikes()));
+            return top.drain();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean letter = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                String token = lower.substring(start, i);
+                if (!tokens.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private Map<Term, Double> expand(String token) {
+        Map<Term, Double> expanded = new HashMap<>();
+        Term exact = terms.get(token);
+        if (exact != null) {
+            expanded.put(exact, EXACT);
+        }
+        PriorityQueue<Term> prefixes = new PriorityQueue<>(Comparator.comparingInt(term -> term.size));
+        for (Term term : terms.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+            if (prefixes.size() < MAX_PREFIX_TERMS) {
+                prefixes.add(term);
+            } else if (term.size > prefixes.peek().size) {
+                prefixes.poll();
+                prefixes.add(term);
+            }
+        }
+        for (Term term : prefixes) {
+            expanded.put(term, PREFIX);
+        }
+        if (token.length() >= MIN_TYPO_LENGTH) {
+            addTypos(expanded, token, deletions.get(token));
+            for (int i = 0; i < token.length(); i++) {
+                String deletion = token.substring(0, i) + token.substring(i + 1);
+                Term term = terms.get(deletion);
+                if (term != null) {
+                    expanded.putIfAbsent(term, TYPO);
+                }
+                addTypos(expanded, token, deletions.get(deletion));
+            }
+        }
+        return expanded;
+    }
+
+    private static void addTypos(Map<Term, Double> expanded, String token, List<Term> candidates) {
+        if (candidates != null) {
+            for (Term term : candidates) {
+                if (withinOneEdit(token, term.text)) {
+                    expanded.putIfAbsent(term, TYPO);
+                }
+            }
+        }
+    }
+
+    private Hits match(Map<Term, Double> expanded, Hits candidates) {
+        List<Hits> postings = new ArrayList<>(expanded.size());
+        for (Map.Entry<Term, Double> match : expanded.entrySet()) {
+            Term term = match.getKey();
+            double weight = weight(term, match.getValue());
+            postings.add(candidates == null ? term.hits(weight) : term.hits(weight, candidates));
+        }
+        Hits hits = union(postings, 0, postings.size());
+        if (candidates != null) {
+            for (int i = 0, j = 0; i < hits.size; i++) {
+                while (candidates.films[j] < hits.films[i]) {
+                    j++;
+                }
+                hits.scores[i] += candidates.score(j);
+            }
+        }
+        return hits;
+    }
+
+    private static Hits union(List<Hits> hits, int from, int to) {
+        if (to - from == 1) {
+            return hits.get(from);
+        }
+        int middle = (from + to) >>> 1;
+        Hits left = union(hits, from, middle);
+        Hits right = union(hits, middle, to);
+        Hits merged = new Hits(left.size + right.size);
+        int i = 0;
+        int j = 0;
+        while (i < left.size || j < right.size) {
+            if (j == right.size || (i < left.size && left.films[i] < right.films[j])) {
+                merged.add(left.films[i], left.score(i++));
+            } else if (i == left.size || right.films[j] < left.films[i]) {
+                merged.add(right.films[j], right.score(j++));
+            } else {
+                merged.add(left.films[i], Math.max(left.score(i++), right.score(j++)));
+            }
+        }
+        return merged;
+    }
+
+    private List<Integer> top(Map<Term, Double> expanded, int limit, LikeRanking ranking) {
+        List<Term> ordered = new ArrayList<>(expanded.keySet());
+        Map<Term, Double> weights = new HashMap<>();
+        for (Term term : ordered) {
+            weights.put(term, weight(term, expanded.get(term)));
+        }
+        ordered.sort(Comparator.comparingDouble(weights::get).reversed());
+        double maxBoost = boost(ranking.maxLikes());
+        Top top = new Top(limit);
+        for (Term term : ordered) {
+            double weight = weights.get(term);
+            if (top.closed(weight * TITLE_WEIGHT * maxBoost)) {
+                break;
+            }
+            collect(term.hits(weight), filmId -> weight * fieldWeight(term.fieldsOf(filmId)), weight * TITLE_WEIGHT,
+                    top, ranking, maxBoost);
+        }
+        return top.drain();
+    }
+
+    private void collect(Hits hits, IntToDoubleFunction scoreOf, double maxRelevance, Top top, LikeRanking ranking,
+                         double maxBoost) {
+        if (hits.size >= MIN_WALK_POSTINGS) {
+            Walk walk = walkByLikes(scoreOf, maxRelevance, hits.size / WALK_COST, top, ranking);
+            if (walk == Walk.CLOSED) {
+                return;
+            }
+            if (walk == Walk.EXHAUSTED) {
+                // every liked film has been seen, the rest score their plain relevance
+                for (int i = 0; i < hits.size && !top.closed(maxRelevance, hits.films[i]); i++) {
+                    int filmId = hits.films[i];
+                    if (ranking.getLikes(filmId) == 0) {
+                        top.offer(filmId, hits.score(i));
+                    }
+                }
+                return;
+            }
+        }
+        for (int i = 0; i < hits.size; i++) {
+            double relevance = hits.score(i);
+            int filmId = hits.films[i];
+            if (!top.closed(relevance * maxBoost, filmId)) {
+                top.offer(filmId, relevance * boost(ranking.getLikes(filmId)));
+            }
+        }
+    }
+
+    /**
+     * Visits films from the most liked down and looks each one up with the relevance function, which
+     * returns 0 for a film that does not match. The walk stops as soon as the best relevance with the
+     * current likes cannot enter the top, or after the budget of lookups, when a scan is cheaper.
+     */
+    private Walk walkByLikes(IntToDoubleFunction relevance, double maxRelevance, int budget, Top top,
+                             LikeRanking ranking) {
+        int[] visited = new int[1];
+        Walk[] result = {Walk.EXHAUSTED};
+        ranking.visitByLikes((filmId, likes) -> {
+            double boost = boost(likes);
+            if (top.closed(maxRelevance * boost)) {
+                result[0] = Walk.CLOSED;
+                return false;
+            }
+            if (visited[0]++ == budget) {
+                result[0] = Walk.OVER_BUDGET;
+                return false;
+            }
+            double score = relevance.applyAsDouble(filmId);
+            if (score > 0) {
+                top.offer(filmId, score * boost);
+            }
+            return true;
+        });
+        return result[0];
+    }
+
+    private double weight(Term term, double match) {
+        return match * Math.log(1 + (double) size / term.size);
+    }
+
+    private double boost(int likes) {
+        return likes < BOOST_TABLE_SIZE ? boosts[likes] : 1 + likeBoost * Math.log1p(likes);
+    }
+
+    private void unindex(int filmId) {
+        if (filmId <= 0 || filmId >= filmTerms.length || filmTerms[filmId] == null) {
+            return;
+        }
+        for (Term term : filmTerms[filmId]) {
+            term.remove(filmId);
+            if (term.size == 0) {
+                terms.remove(term.text);
+                removeDeletions(term);
+            }
+        }
+        filmTerms[filmId] = null;
+        size--;
+    }
+
+    private void addDeletions(Term term) {
+        if (term.text.length() >= MIN_TYPO_LENGTH - 1) {
+            for (int i = 0; i < term.text.length(); i++) {
+                String deletion = term.text.substring(0, i) + term.text.substring(i + 1);
+                List<Term> variants = deletions.computeIfAbsent(deletion, key -> new ArrayList<>(1));
+                if (!variants.contains(term)) {
+                    variants.add(term);
+                }
+            }
+        }
+    }
+
+    private void removeDeletions(Term term) {
+        if (term.text.length() >= MIN_TYPO_LENGTH - 1) {
+            for (int i = 0; i < term.text.length(); i++) {
+                String deletion = term.text.substring(0, i) + term.text.substring(i + 1);
+                List<Term> variants = deletions.get(deletion);
+                if (variants != null && variants.remove(term) && variants.isEmpty()) {
+                    deletions.remove(deletion);
+                }
+            }
+        }
+    }
+
+    private static long postings(Map<Term, Double> expanded) {
+        return expanded.keySet().stream().mapToLong(term -> term.size).sum();
+    }
+
+    private static double fieldWeight(byte fields) {
+        return (fields & TITLE) != 0 ? TITLE_WEIGHT : 1.0;
+    }
+
+    static boolean withinOneEdit(String a, String b) {
+        if (a.length() < b.length()) {
+            return withinOneEdit(b, a);
+        }
+        if (a.length() - b.length() > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < b.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (a.length() > b.length()) {
+            return a.regionMatches(i + 1, b, i, b.length() - i);
+        }
+        if (i == a.length() || a.regionMatches(i + 1, b, i + 1, a.length() - i - 1)) {
+            return true;
+        }
+        return i + 1 < a.length() && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                && a.regionMatches(i + 2, b, i + 2, a.length() - i - 2);
+    }
+
+    private enum Walk {
+        CLOSED, EXHAUSTED, OVER_BUDGET
+    }
+
+    /**
+     * Query tokens looked up one film at a time: a film scores the sum over tokens of its best matching
+     * term, or 0 when some token does not match it.
+     */
+    private class Conjunction {
+        private final Term[][] tokens;
+        private final double[][] weights;
+        private final int terms;
+
+        Conjunction(List<Map<Term, Double>> matches) {
+            tokens = new Term[matches.size()][];
+            weights = new double[matches.size()][];
+            int count = 0;
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = matches.get(i).keySet().toArray(new Term[0]);
+                weights[i] = new double[tokens[i].length];
+                for (int j = 0; j < tokens[i].length; j++) {
+                    weights[i][j] = weight(tokens[i][j], matches.get(i).get(tokens[i][j]));
+                }
+                count += tokens[i].length;
+            }
+            terms = count;
+        }
+
+        double relevance(int filmId) {
+            double total = 0;
+            for (int i = 0; i < tokens.length; i++) {
+                double best = 0;
+                for (int j = 0; j < tokens[i].length; j++) {
+                    byte field = tokens[i][j].fieldsOf(filmId);
+                    if (field != 0) {
+                        best = Math.max(best, weights[i][j] * fieldWeight(field));
+                    }
+                }
+                if (best == 0) {
+                    return 0;
+                }
+                total += best;
+            }
+            return total;
+        }
+
+        double maxRelevance() {
+            double total = 0;
+            for (double[] token : weights) {
+                total += Arrays.stream(token).max().orElse(0) * TITLE_WEIGHT;
+            }
+            return total;
+        }
+    }
+
+    /**
+     * The best films seen so far, worst on top; ties go to the lower film id. A film offered again keeps
+     * its higher score.
+     */
+    private static class Top {
+        private final int limit;
+        private final PriorityQueue<double[]> heap = new PriorityQueue<>(
+                Comparator.<double[]>comparingDouble(hit -> hit[1]).thenComparingDouble(hit -> -hit[0]));
+        private final Map<Integer, double[]> best = new HashMap<>();
+
+        Top(int limit) {
+            this.limit = limit;
+        }
+
+        boolean closed(double bound) {
+            return heap.size() == limit && bound < heap.peek()[1];
+        }
+
+        // also true on a tie that the film would lose to a lower id already kept
+        boolean closed(double bound, int filmId) {
+            return heap.size() == limit && (bound < heap.peek()[1]
+                    || bound == heap.peek()[1] && filmId > heap.peek()[0]);
+        }
+
+        void offer(int filmId, double score) {
+            if (closed(score, filmId)) {
+                return;
+            }
+            double[] seen = best.get(filmId);
+            if (seen != null) {
+                if (score > seen[1]) {
+                    heap.remove(seen);
+                    seen[1] = score;
+                    heap.add(seen);
+                }
+                return;
+            }
+            if (heap.size() == limit) {
+                best.remove((int) heap.poll()[0]);
+            }
+            double[] hit = {filmId, score};
+            heap.add(hit);
+            best.put(filmId, hit);
+        }
+
+        List<Integer> drain() {
+            Integer[] filmIds = new Integer[heap.size()];
+            for (int i = filmIds.length - 1; i >= 0; i--) {
+                filmIds[i] = (int) heap.poll()[0];
+            }
+            return Arrays.asList(filmIds);
+        }
+    }
+
+    private static class Term {
+        private final String text;
+        private int[] films = new int[2];
+        private byte[] fields = new byte[2];
+        private int size;
+        // bitsets over film ids for a term found in many films, so a lookup does not search the postings
+        private long[] present;
+        private long[] titled;
+
+        Term(String text) {
+            this.text = text;
+        }
+
+        void add(int filmId, int field) {
+            int position = size == 0 || films[size - 1] < filmId
+                    ? -size - 1
+                    : Arrays.binarySearch(films, 0, size, filmId);
+            if (position >= 0) {
+                fields[position] |= field;
+                mark(filmId, fields[position]);
+                return;
+            }
+            position = -position - 1;
+            if (size == films.length) {
+                films = Arrays.copyOf(films, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            System.arraycopy(films, position, films, position + 1, size - position);
+            System.arraycopy(fields, position, fields, position + 1, size - position);
+            films[position] = filmId;
+            fields[position] = (byte) field;
+            size++;
+            if (present != null) {
+                mark(filmId, field);
+            } else if (size == DENSE_POSTINGS) {
+                present = new long[(films[size - 1] >>> 6) + 1];
+                titled = new long[present.length];
+                for (int i = 0; i < size; i++) {
+                    mark(films[i], fields[i]);
+                }
+            }
+        }
+
+        byte fieldsOf(int filmId) {
+            if (present != null) {
+                int word = filmId >>> 6;
+                if (word >= present.length || (present[word] & 1L << filmId) == 0) {
+                    return 0;
+                }
+                return (byte) ((titled[word] & 1L << filmId) != 0 ? TITLE : DESCRIPTION);
+            }
+            int position = Arrays.binarySearch(films, 0, size, filmId);
+            return position >= 0 ? fields[position] : 0;
+        }
+
+        private void mark(int filmId, int field) {
+            if (present == null) {
+                return;
+            }
+            int word = filmId >>> 6;
+            if (word >= present.length) {
+                present = Arrays.copyOf(present, Math.max(word + 1, present.length * 2));
+                titled = Arrays.copyOf(titled, present.length);
+            }
+            present[word] |= 1L << filmId;
+            if ((field & TITLE) != 0) {
+                titled[word] |= 1L << filmId;
+            }
+        }
+
+        Hits hits(double weight) {
+            return new Hits(films, fields, weight, size);
+        }
+
+        Hits hits(double weight, Hits candidates) {
+            Hits hits = new Hits(Math.min(size, candidates.size));
+            if (present != null) {
+                for (int j = 0; j < candidates.size; j++) {
+                    byte field = fieldsOf(candidates.films[j]);
+                    if (field != 0) {
+                        hits.add(candidates.films[j], weight * fieldWeight(field));
+                    }
+                }
+            } else if (candidates.size * 4L < size) {
+                int from = 0;
+                for (int j = 0; j < candidates.size && from < size; j++) {
+                    int position = seek(from, candidates.films[j]);
+                    if (position >= 0) {
+                        hits.add(films[position], weight * fieldWeight(fields[position]));
+                        from = position + 1;
+                    } else {
+                        from = -position - 1;
+                    }
+                }
+            } else {
+                int i = 0;
+                int j = 0;
+                while (i < size && j < candidates.size) {
+                    if (films[i] < candidates.films[j]) {
+                        i++;
+                    } else if (films[i] > candidates.films[j]) {
+                        j++;
+                    } else {
+                        hits.add(films[i], weight * fieldWeight(fields[i++]));
+                        j++;
+                    }
+                }
+            }
+            return hits;
+        }
+
+        // galloping search from a position, so a sorted run of lookups costs little more than a merge
+        private int seek(int from, int filmId) {
+            int high = from;
+            int step = 1;
+            while (high < size && films[high] < filmId) {
+                from = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            return Arrays.binarySearch(films, from, Math.min(high + 1, size), filmId);
+        }
+
+        void remove(int filmId) {
+            int position = Arrays.binarySearch(films, 0, size, filmId);
+            if (position >= 0) {
+                System.arraycopy(films, position + 1, films, position, size - position - 1);
+                System.arraycopy(fields, position + 1, fields, position, size - position - 1);
+                size--;
+                if (size < DENSE_POSTINGS / 2) {
+                    present = null;
+                    titled = null;
+                } else if (present != null) {
+                    present[filmId >>> 6] &= ~(1L << filmId);
+                    titled[filmId >>> 6] &= ~(1L << filmId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Films matched by a term or a query prefix, sorted by id. A single term is read in place: its scores
+     * are derived from the posting fields instead of being copied.
+     */
+    private static class Hits {
+        private final int[] films;
+        private final double[] scores;
+        private final byte[] fields;
+        private final double weight;
+        private int size;
+
+        Hits(int capacity) {
+            this.films = new int[capacity];
+            this.scores = new double[capacity];
+            this.fields = null;
+            this.weight = 0;
+        }
+
+        Hits(int[] films, byte[] fields, double weight, int size) {
+            this.films = films;
+            this.scores = null;
+            this.fields = fields;
+            this.weight = weight;
+            this.size = size;
+        }
+
+        double score(int i) {
+            return scores != null ? scores[i] : weight * fieldWeight(fields[i]);
+        }
+
+        double scoreOf(int filmId) {
+            int position = Arrays.binarySearch(films, 0, size, filmId);
+            return position >= 0 ? score(position) : 0;
+        }
+
+        double maxScore() {
+            if (scores == null) {
+                return weight * TITLE_WEIGHT;
+            }
+            double max = 0;
+            for (int i = 0; i < size; i++) {
+                max = Math.max(max, scores[i]);
+            }
+            return max;
+        }
+
+        void add(int filmId, double score) {
+            films[size] = filmId;
+            scores[size++] = score;
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmExport;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.Likes;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
 
     Film addFilm(Film film);
 
+    List<Integer> addFilms(List<Film> films);
+
     void deleteFilm(Integer id);
 
     Film updateFilm(Film film);
@@ -16,12 +24,28 @@ public interface FilmStorage {
 
     Collection<Film> getAllFilms();
 
+    List<Film> getFilms(Integer after, int limit);
+
+    List<Film> getFilms(Integer after, int limit, Set<FilmField> fields);
+
+    void exportFilms(Consumer<FilmExport> consumer);
+
     void addLike(Integer id, Integer userId);
 
     void deleteLike(Integer id, Integer userId);
 
+    int[] addLikes(List<Likes> likes);
+
+    int[] deleteLikes(List<Likes> likes);
+
     Collection<Film> getPopular(Integer count);
 
+    Collection<Film> getPopular(Integer count, Integer genreId, Integer year);
+
+    List<Film> searchFilms(String query, int limit);
+
+    List<Film> getFilmsByIds(List<Integer> ids);
+
     void checkFilmExist(Integer id);
 
 }
@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+public interface LikeIndex {
+    int[] getLikedFilms(int userId);
+
+    int[] getLikers(int filmId);
+}
@@ -0,0 +1,183 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Films ordered by likes. Writers synchronize on the ranking, readers go through the concurrent
+ * collections without it, so a search walking the ranking never holds up a like. A read that
+ * overlaps a write may miss the film being moved, never sees it twice.
+ */
+public class LikeRanking {
+
+    private static final int ANY_YEAR = Integer.MIN_VALUE;
+
+    private volatile Map<Integer, Integer> likes = new ConcurrentHashMap<>();
+    // ordered by likes desc, then film id asc: (MAX_VALUE - likes) in the high half, film id in the low half
+    private volatile NavigableSet<Long> ranking = new ConcurrentSkipListSet<>();
+    // the same keys per genre, per release year and per genre and year, so a filtered top only walks matches
+    private final Map<Integer, Facets> facets = new HashMap<>();
+    private volatile Map<Long, NavigableSet<Long>> facetRankings = new ConcurrentHashMap<>();
+
+    public synchronized void reset(Map<Integer, Integer> counts) {
+        // filled aside and swapped in, readers keep the old ranking until the new one is complete
+        Map<Integer, Integer> newLikes = new ConcurrentHashMap<>();
+        NavigableSet<Long> newRanking = new ConcurrentSkipListSet<>();
+        counts.forEach((filmId, count) -> {
+            if (count > 0) {
+                newLikes.put(filmId, count);
+                newRanking.add(key(filmId, count));
+            }
+        });
+        facets.clear();
+        facetRankings = new ConcurrentHashMap<>();
+        likes = newLikes;
+        ranking = newRanking;
+    }
+
+    public synchronized void set(Integer filmId, int count) {
+        Integer previous = likes.remove(filmId);
+        Facets filmFacets = facets.get(filmId);
+        if (previous != null) {
+            ranking.remove(key(filmId, previous));
+            unrank(key(filmId, previous), filmFacets);
+        }
+        if (count > 0) {
+            likes.put(filmId, count);
+            ranking.add(key(filmId, count));
+            rank(key(filmId, count), filmFacets);
+        }
+    }
+
+    public synchronized void setFacets(Integer filmId, Film film) {
+        int[] genreIds = film.getGenres() == null ? new int[0] : film.getGenres().stream()
+                .mapToInt(Genre::getId)
+                .toArray();
+        setFacets(filmId, film.getReleaseDate().getYear(), genreIds);
+    }
+
+    public synchronized void setFacets(Integer filmId, int year, int[] genreIds) {
+        Integer count = likes.get(filmId);
+        if (count != null) {
+            unrank(key(filmId, count), facets.get(filmId));
+        }
+        Facets filmFacets = new Facets(year, genreIds);
+        facets.put(filmId, filmFacets);
+        if (count != null) {
+            rank(key(filmId, count), filmFacets);
+        }
+    }
+
+    public synchronized void increment(Integer filmId) {
+        set(filmId, likes.getOrDefault(filmId, 0) + 1);
+    }
+
+    public synchronized void decrement(Integer filmId) {
+        set(filmId, Math.max(0, likes.getOrDefault(filmId, 0) - 1));
+    }
+
+    public synchronized void remove(Integer filmId) {
+        set(filmId, 0);
+        facets.remove(filmId);
+    }
+
+    public List<Integer> top(int count) {
+        return top(ranking, count);
+    }
+
+    public List<Integer> top(int count, Integer genreId, Integer year) {
+        if (genreId == null && year == null) {
+            return top(count);
+        }
+        NavigableSet<Long> facetRanking = facetRankings.get(facet(genreId, year));
+        return facetRanking == null ? new ArrayList<>() : top(facetRanking, count);
+    }
+
+    public int maxLikes() {
+        Long first = ranking.ceiling(Long.MIN_VALUE);
+        return first == null ? 0 : Integer.MAX_VALUE - (int) (first >>> 32);
+    }
+
+    /**
+     * Visits liked films from the most liked down, ties by film id, until the visitor returns false.
+     */
+    public void visitByLikes(LikeVisitor visitor) {
+        for (long key : ranking) {
+            if (!visitor.visit((int) key, Integer.MAX_VALUE - (int) (key >>> 32))) {
+                return;
+            }
+        }
+    }
+
+    public int getLikes(Integer filmId) {
+        return likes.getOrDefault(filmId, 0);
+    }
+
+    public synchronized Map<Integer, Integer> snapshot() {
+        return new HashMap<>(likes);
+    }
+
+    private static List<Integer> top(NavigableSet<Long> source, int count) {
+        List<Integer> filmIds = new ArrayList<>();
+        Iterator<Long> iterator = source.iterator();
+        while (filmIds.size() < count && iterator.hasNext()) {
+            filmIds.add((int) (long) iterator.next());
+        }
+        return filmIds;
+    }
+
+    private void rank(long key, Facets filmFacets) {
+        if (filmFacets != null) {
+            for (long facet : filmFacets.keys) {
+                facetRankings.computeIfAbsent(facet, f -> new ConcurrentSkipListSet<>()).add(key);
+            }
+        }
+    }
+
+    private void unrank(long key, Facets filmFacets) {
+        if (filmFacets != null) {
+            for (long facet : filmFacets.keys) {
+                NavigableSet<Long> facetRanking = facetRankings.get(facet);
+                if (facetRanking != null && facetRanking.remove(key) && facetRanking.isEmpty()) {
+                    facetRankings.remove(facet);
+                }
+            }
+        }
+    }
+
+    private static long facet(Integer genreId, Integer year) {
+        return ((long) (genreId == null ? 0 : genreId) << 32) | ((year == null ? ANY_YEAR : year) & 0xFFFFFFFFL);
+    }
+
+    private static long key(int filmId, int count) {
+        return ((long) (Integer.MAX_VALUE - count) << 32) | (filmId & 0xFFFFFFFFL);
+    }
+
+    public interface LikeVisitor {
+        boolean visit(int filmId, int likes);
+    }
+
+    private static class Facets {
+        private final long[] keys;
+
+        Facets(int year, int[] genreIds) {
+            int[] distinctGenreIds = Arrays.stream(genreIds).distinct().toArray();
+            keys = new long[1 + 2 * distinctGenreIds.length];
+            keys[0] = facet(null, year);
+            for (int i = 0; i < distinctGenreIds.length; i++) {
+                keys[1 + 2 * i] = facet(distinctGenreIds[i], null);
+                keys[2 + 2 * i] = facet(distinctGenreIds[i], year);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmExport;
+
+public interface ReactiveFilmStorage {
+
+    Mono<Film> getFilmById(Integer filmId);
+
+    Flux<Film> getFilms(Integer after, int limit);
+
+    Flux<FilmExport> exportFilms();
+
+    Flux<Film> getPopular(Integer count, Integer genreId, Integer year);
+}
@@ -0,0 +1,160 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Sliding-window like counters. Every film liked within the horizon owns a ring of per-bucket counts that
+ * writers update under its own map bin only. roll() advances the shared bucket number, clears the slot that
+ * is about to be reused and drops films whose ring became empty, so memory follows active films.
+ */
+@Component
+@Slf4j
+public class TrendingCounters {
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final double decay;
+    private final ConcurrentHashMap<Integer, AtomicIntegerArray> rings = new ConcurrentHashMap<>();
+    private volatile long current;
+    private ScheduledExecutorService scheduler;
+
+    public TrendingCounters(@Value("${filmorate.trending.bucket:1h}") Duration bucket,
+                            @Value("${filmorate.trending.horizon:7d}") Duration horizon,
+                            @Value("${filmorate.trending.half-life:12h}") Duration halfLife) {
+        this.bucketMillis = bucket.toMillis();
+        this.buckets = (int) Math.max(1, horizon.toMillis() / bucketMillis);
+        this.decay = Math.pow(0.5, (double) bucketMillis / halfLife.toMillis());
+        this.current = System.currentTimeMillis() / bucketMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "trending-roll");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long delay = bucketMillis - System.currentTimeMillis() % bucketMillis;
+        scheduler.scheduleAtFixedRate(() -> roll(System.currentTimeMillis()), delay, bucketMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public Duration horizon() {
+        return Duration.ofMillis(bucketMillis * buckets);
+    }
+
+    public void clear() {
+        rings.clear();
+    }
+
+    public void add(Integer filmId, long likedAt) {
+        long bucket = Math.min(likedAt / bucketMillis, current);
+        if (bucket > current - buckets) {
+            rings.compute(filmId, (id, ring) -> {
+                AtomicIntegerArray counts = ring == null ? new AtomicIntegerArray(buckets) : ring;
+                counts.incrementAndGet(slot(bucket));
+                return counts;
+            });
+        }
+    }
+
+    public void remove(Integer filmId, long likedAt) {
+        long bucket = Math.min(likedAt / bucketMillis, current);
+        if (bucket > current - buckets) {
+            rings.computeIfPresent(filmId, (id, ring) -> {
+                ring.getAndUpdate(slot(bucket), count -> Math.max(0, count - 1));
+                return isEmpty(ring) ? null : ring;
+            });
+        }
+    }
+
+    public void remove(Integer filmId) {
+        rings.remove(filmId);
+    }
+
+    public void roll(long now) {
+        long target = now / bucketMillis;
+        if (target - current >= buckets) {
+            rings.clear();
+            current = target;
+        }
+        while (current < target) {
+            int next = slot(current + 1);
+            for (Integer filmId : rings.keySet()) {
+                rings.computeIfPresent(filmId, (id, ring) -> {
+                    ring.set(next, 0);
+                    return isEmpty(ring) ? null : ring;
+                });
+            }
+            current++;
+        }
+        log.debug("Trending buckets rolled. Active films {}.", rings.size());
+    }
+
+    public List<Integer> top(int count, Duration window) {
+        long windowMillis = Math.max(bucketMillis, window.toMillis());
+        int windowBuckets = (int) Math.min(buckets, (windowMillis + bucketMillis - 1) / bucketMillis);
+        long now = current;
+        PriorityQueue<double[]> heap = new PriorityQueue<>(
+                Comparator.<double[]>comparingDouble(hit -> hit[1]).thenComparingDouble(hit -> -hit[0]));
+        rings.forEach((filmId, ring) -> {
+            double score = 0;
+            double weight = 1;
+            for (int age = 0; age < windowBuckets; age++) {
+                score += ring.get(slot(now - age)) * weight;
+                weight *= decay;
+            }
+            if (score <= 0) {
+                return;
+            }
+            if (heap.size() < count) {
+                heap.add(new double[]{filmId, score});
+            } else if (score > heap.peek()[1] || (score == heap.peek()[1] && filmId < heap.peek()[0])) {
+                heap.poll();
+                heap.add(new double[]{filmId, score});
+            }
+        });
+        List<Integer> filmIds = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            filmIds.add(0, (int) heap.poll()[0]);
+        }
+        return filmIds;
+    }
+
+    public int activeFilms() {
+        return rings.size();
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) buckets);
+    }
+
+    private static boolean isEmpty(AtomicIntegerArray ring) {
+        for (int i = 0; i < ring.length(); i++) {
+            if (ring.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -2,147 +2,358 @@ package ru.yandex.practicum.filmorate.storage.film.dao;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmExport;
+import ru.yandex.practicum.filmorate.model.FilmField;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Likes;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.TrendingCounters;
 import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
 import ru.yandex.practicum.filmorate.storage.genre.dao.GenreDbStorage;
 import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
 import ru.yandex.practicum.filmorate.storage.mpa.dao.MpaDbStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 import ru.yandex.practicum.filmorate.storage.user.dao.UserDbStorage;
+import ru.yandex.practicum.filmorate.storage.util.ResourceVersions;
 
+import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Component
 @Slf4j
 @Primary
+@Profile("!memory")
 public class FilmDbStorage implements FilmStorage {
 
+    private static final String GENRE_IDS = "(SELECT LISTAGG(FG.GENRE_ID, ',') WITHIN GROUP (ORDER BY FG.GENRE_ID) " +
+            "FROM FILM_GENRE AS FG WHERE FG.FILM_ID = F.FILM_ID) AS GENRE_IDS ";
+    private static final String JOIN_RATING = "LEFT OUTER JOIN RATING AS R ON R.RATING_ID = F.RATING ";
+    static final String SELECT_FILMS = "SELECT F.*, R.*, " + GENRE_IDS + "FROM FILMS AS F " + JOIN_RATING;
+    private static final int IN_BATCH_SIZE = 500;
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
     private final JdbcTemplate jdbcTemplate;
     private final UserStorage userStorage;
     private final MpaStorage mpaStorage;
     private final GenreStorage genreStorage;
+    private final LikesLeaderboard leaderboard;
+    private final LikeMatrix likeMatrix;
+    private final FilmTextIndex textIndex;
+    private final TrendingCounters trending;
+    private final ResourceVersions versions;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final SimpleJdbcInsert filmInsert;
 
     @Autowired
     public FilmDbStorage(JdbcTemplate jdbcTemplate,
                          UserDbStorage userStorage,
                          MpaDbStorage mpaStorage,
-                         GenreDbStorage genreStorage) {
+                         GenreDbStorage genreStorage,
+                         LikesLeaderboard leaderboard,
+                         LikeMatrix likeMatrix,
+                         FilmTextIndex textIndex,
+                         TrendingCounters trending,
+                         ResourceVersions versions,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${filmorate.bulk.chunk-size:1000}") int chunkSize) {
         this.jdbcTemplate = jdbcTemplate;
         this.userStorage = userStorage;
         this.mpaStorage = mpaStorage;
         this.genreStorage = genreStorage;
+        this.leaderboard = leaderboard;
+        this.likeMatrix = likeMatrix;
+        this.textIndex = textIndex;
+        this.trending = trending;
+        this.versions = versions;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.filmInsert = new SimpleJdbcInsert(jdbcTemplate)
+                .withTableName("FILMS")
+                .usingColumns("TITLE", "DESCRIPTION", "RELEASE_DATE", "DURATION", "RATING")
+                .usingGeneratedKeyColumns("FILM_ID");
     }
 
     @Override
     public Film addFilm(Film film) {
-        SimpleJdbcInsert simpleJdbcInsert = new SimpleJdbcInsert(jdbcTemplate)
-                .withTableName("FILMS")
-                .usingGeneratedKeyColumns("FILM_ID");
-
-        Integer filmId = simpleJdbcInsert.executeAndReturnKey(toMap(film)).intValue();
+        Film newFilm = resolve(film);
+        Integer filmId = filmInsert.executeAndReturnKey(toMap(newFilm)).intValue();
+        newFilm.setId(filmId);
+        insertGenreForFilm(filmId, newFilm.getGenres());
+        textIndex.put(filmId, newFilm.getName(), newFilm.getDescription());
+        leaderboard.setFacets(filmId, newFilm);
+        versions.filmChanged(filmId);
+        log.info("Film added: {}.", newFilm);
+        return newFilm;
+    }
 
-        if (film.getGenres() != null) {
-            updateGenreForFilm(filmId, film.getGenres());
+    @Override
+    public List<Integer> addFilms(List<Film> films) {
+        List<Integer> ids = new ArrayList<>(films.size());
+        for (int from = 0; from < films.size(); from += chunkSize) {
+            List<Film> chunk = films.subList(from, Math.min(from + chunkSize, films.size()));
+            List<Integer> chunkIds = transactionTemplate.execute(status -> insertFilms(chunk));
+            for (int i = 0; i < chunk.size(); i++) {
+                Film film = chunk.get(i);
+                textIndex.put(chunkIds.get(i), film.getName(), film.getDescription());
+                leaderboard.setFacets(chunkIds.get(i), film);
+            }
+            ids.addAll(chunkIds);
         }
-
-        Film newFilm = getFilmById(filmId);
-        log.info("Film added: {}.", newFilm);
-        return getFilmById(filmId);
+        ids.forEach(versions::filmChanged);
+        log.info("Films added: {}.", ids.size());
+        return ids;
     }
 
     @Override
     public void deleteFilm(Integer id) {
-        checkFilmExist(id);
-        Film film = getFilmById(id);
-        jdbcTemplate.update("DELETE FROM FILMS WHERE FILM_ID=?", id);
-        log.info("film deleted. film{}.", film);
+        if (jdbcTemplate.update("DELETE FROM FILMS WHERE FILM_ID=?", id) == 0) {
+            throw new NotFoundException(String.format("No such film with this id:%s.", id));
+        }
+        leaderboard.remove(id);
+        likeMatrix.removeFilm(id);
+        textIndex.remove(id);
+        trending.remove(id);
+        versions.filmChanged(id);
+        log.info("film deleted. film id={}.", id);
     }
 
     @Override
     public Film updateFilm(Film film) {
         Integer filmId = film.getId();
-        checkFilmExist(filmId);
+        Film resolved = resolve(film);
         String updateSql = "UPDATE FILMS SET TITLE=?, DESCRIPTION=?, RELEASE_DATE=?, DURATION=?, RATING=? " +
                 "WHERE FILM_ID=?;";
-        jdbcTemplate.update(updateSql,
-                film.getName(),
-                film.getDescription(),
-                film.getReleaseDate(),
-                film.getDuration(),
-                film.getMpa().getId(),
-                filmId);
-        updateGenreForFilm(filmId, film.getGenres());
-        Film newFilm = getFilmById(filmId);
+        Film newFilm = transactionTemplate.execute(status -> {
+            int updated = jdbcTemplate.update(updateSql,
+                    resolved.getName(),
+                    resolved.getDescription(),
+                    resolved.getReleaseDate(),
+                    resolved.getDuration(),
+                    resolved.getMpa().getId(),
+                    filmId);
+            if (updated == 0) {
+                throw new NotFoundException(String.format("No such film with this id:%s.", filmId));
+            }
+            if (film.getGenres() == null) {
+                return getFilmById(filmId);
+            }
+            jdbcTemplate.update("DELETE FROM FILM_GENRE WHERE FILM_ID=?;", filmId);
+            insertGenreForFilm(filmId, resolved.getGenres());
+            return resolved;
+        });
+        textIndex.put(filmId, newFilm.getName(), newFilm.getDescription());
+        leaderboard.setFacets(filmId, newFilm);
+        versions.filmChanged(filmId);
         log.info("Film updated. film{}.", newFilm);
         return newFilm;
     }
 
     @Override
     public Film getFilmById(Integer filmId) {
-        String sql = "SELECT * FROM FILMS AS F " +
-                "LEFT OUTER JOIN RATING AS R ON R.RATING_ID = F.RATING " +
-                "WHERE FILM_ID=?;";
-        checkFilmExist(filmId);
-        Film film = jdbcTemplate.queryForObject(sql, (rs, rowNum) -> makeFilm(rs), filmId);
+        String sql = SELECT_FILMS + "WHERE F.FILM_ID=?;";
+        Film film = jdbcTemplate.query(sql, (rs, rowNum) -> makeFilm(rs), filmId).stream()
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException(String.format("No such film with this id:%s.", filmId)));
         log.info("Get film. film{}.", film);
         return film;
     }
 
     @Override
     public Collection<Film> getAllFilms() {
-        String sql = "SELECT * FROM FILMS AS F " +
-                "LEFT OUTER JOIN RATING AS R ON R.RATING_ID = F.RATING " +
-                "ORDER BY FILM_ID;";
-        Collection<Film> films = jdbcTemplate.query(sql, (rs, rowNum) -> makeFilm(rs));
+        String sql = SELECT_FILMS + "ORDER BY F.FILM_ID;";
+        List<Film> films = jdbcTemplate.query(sql, (rs, rowNum) -> makeFilm(rs));
         log.info("Get all films. Count of films {}.", films.size());
         return films;
     }
 
+    @Override
+    public List<Film> getFilms(Integer after, int limit) {
+        return getFilms(after, limit, FilmField.ALL);
+    }
+
+    @Override
+    public List<Film> getFilms(Integer after, int limit, Set<FilmField> fields) {
+        String sql = selectFilms(fields) + "WHERE F.FILM_ID > ? ORDER BY F.FILM_ID LIMIT ?;";
+        List<Film> films = jdbcTemplate.query(sql, (rs, rowNum) -> makeFilm(rs, fields),
+                after == null ? 0 : after, limit);
+        log.info("Get films after id={}. Count of films {}.", after, films.size());
+        return films;
+    }
+
+    @Override
+    public void exportFilms(Consumer<FilmExport> consumer) {
+        String sql = SELECT_FILMS + "ORDER BY F.FILM_ID;";
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            Film film = makeFilm(rs);
+            consumer.accept(new FilmExport(film, leaderboard.getLikes(film.getId())));
+        });
+        log.info("Films exported.");
+    }
+
     @Override
     public void addLike(Integer filmId, Integer userId) {
-        checkFilmExist(filmId);
-        userStorage.checkUserExist(userId);
-        String sql = "INSERT INTO USER_FILM (USER_ID, FILM_ID) VALUES(?, ?);";
-        jdbcTemplate.update(sql, userId, filmId);
+        String sql = "INSERT INTO USER_FILM (USER_ID, FILM_ID, CREATED_AT) VALUES(?, ?, ?);";
+        long likedAt = System.currentTimeMillis();
+        try {
+            jdbcTemplate.update(sql, userId, filmId, new Timestamp(likedAt));
+        } catch (DuplicateKeyException e) {
+            throw e;
+        } catch (DataIntegrityViolationException e) {
+            throw new NotFoundException(String.format("No such film with id:%s or user with id:%s.", filmId, userId));
+        }
+        leaderboard.increment(filmId);
+        likeMatrix.add(userId, filmId);
+        trending.add(filmId, likedAt);
+        versions.filmsChanged();
         log.info("Like added to film with id={}.", filmId);
     }
 
     @Override
     public void deleteLike(Integer filmId, Integer userId) {
-        checkFilmExist(filmId);
-        userStorage.checkUserExist(userId);
-        String sql = "DELETE FROM USER_FILM WHERE FILM_ID=? AND USER_ID=?;";
-        jdbcTemplate.update(sql, filmId, userId);
+        String sql = "SELECT CREATED_AT FROM OLD TABLE (DELETE FROM USER_FILM WHERE FILM_ID=? AND USER_ID=?);";
+        List<Timestamp> deleted = jdbcTemplate.queryForList(sql, Timestamp.class, filmId, userId);
+        if (!deleted.isEmpty()) {
+            leaderboard.decrement(filmId);
+            likeMatrix.remove(userId, filmId);
+            if (deleted.get(0) != null) {
+                trending.remove(filmId, deleted.get(0).getTime());
+            }
+            versions.filmsChanged();
+        } else {
+            checkFilmExist(filmId);
+            userStorage.checkUserExist(userId);
+        }
         log.info("Like remove.");
     }
 
+    @Override
+    public int[] addLikes(List<Likes> likes) {
+        String sql = "INSERT INTO USER_FILM (USER_ID, FILM_ID, CREATED_AT) " +
+                "SELECT ?, ?, ? FROM DUAL " +
+                "WHERE EXISTS (SELECT 1 FROM USERS WHERE USER_ID=?) " +
+                "AND EXISTS (SELECT 1 FROM FILMS WHERE FILM_ID=?) " +
+                "AND NOT EXISTS (SELECT 1 FROM USER_FILM WHERE USER_ID=? AND FILM_ID=?);";
+        int[] counts = new int[likes.size()];
+        for (int from = 0; from < likes.size(); from += chunkSize) {
+            List<Likes> chunk = likes.subList(from, Math.min(from + chunkSize, likes.size()));
+            long likedAt = System.currentTimeMillis();
+            int[] chunkCounts = transactionTemplate.execute(status ->
+                    jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Likes like = chunk.get(i);
+                            ps.setInt(1, like.getUserId());
+                            ps.setInt(2, like.getFilmId());
+                            ps.setTimestamp(3, new Timestamp(likedAt));
+                            ps.setInt(4, like.getUserId());
+                            ps.setInt(5, like.getFilmId());
+                            ps.setInt(6, like.getUserId());
+                            ps.setInt(7, like.getFilmId());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    }));
+            for (int i = 0; i < chunk.size(); i++) {
+                counts[from + i] = chunkCounts[i];
+                if (chunkCounts[i] > 0) {
+                    leaderboard.increment(chunk.get(i).getFilmId());
+                    likeMatrix.add(chunk.get(i).getUserId(), chunk.get(i).getFilmId());
+                    trending.add(chunk.get(i).getFilmId(), likedAt);
+                }
+            }
+        }
+        versions.filmsChanged();
+        log.info("Likes added: {}.", Arrays.stream(counts).sum());
+        return counts;
+    }
+
+    @Override
+    public int[] deleteLikes(List<Likes> likes) {
+        String sql = "DELETE FROM USER_FILM WHERE USER_ID=? AND FILM_ID=?;";
+        int[] counts = new int[likes.size()];
+        for (int from = 0; from < likes.size(); from += chunkSize) {
+            List<Likes> chunk = likes.subList(from, Math.min(from + chunkSize, likes.size()));
+            Map<Long, Long> likedAt = new HashMap<>();
+            int[] chunkCounts = transactionTemplate.execute(status -> {
+                likedAt.putAll(findLikedAt(chunk));
+                return jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setInt(1, chunk.get(i).getUserId());
+                        ps.setInt(2, chunk.get(i).getFilmId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return chunk.size();
+                    }
+                });
+            });
+            for (int i = 0; i < chunk.size(); i++) {
+                counts[from + i] = chunkCounts[i];
+                if (chunkCounts[i] > 0) {
+                    Likes like = chunk.get(i);
+                    leaderboard.decrement(like.getFilmId());
+                    likeMatrix.remove(like.getUserId(), like.getFilmId());
+                    Long time = likedAt.get(likeKey(like.getUserId(), like.getFilmId()));
+                    if (time != null) {
+                        trending.remove(like.getFilmId(), time);
+                    }
+                }
+            }
+        }
+        versions.filmsChanged();
+        log.info("Likes removed: {}.", Arrays.stream(counts).sum());
+        return counts;
+    }
+
     @Override
     public Collection<Film> getPopular(Integer count) {
-        String sql = "SELECT F.*, R.*, COUNT(UF.FILM_ID) AS LIKES " +
-                "FROM FILMS AS F " +
-                "LEFT JOIN RATING AS R ON R.RATING_ID = F.RATING " +
-                "LEFT JOIN USER_FILM AS UF ON F.FILM_ID = UF.FILM_ID " +
-                "GROUP BY F.FILM_ID " +
-                "HAVING LIKES > 0 " +
-                "ORDER BY LIKES DESC " +
-                "LIMIT ?;";
-        Collection<Film> films = jdbcTemplate.query(sql, (rs, rowNum) -> makeFilm(rs), count);
+        return getPopular(count, null, null);
+    }
+
+    @Override
+    public Collection<Film> getPopular(Integer count, Integer genreId, Integer year) {
+        List<Film> films = getFilmsByIds(leaderboard.top(count, genreId, year));
         log.info("Get top films: {}.", films.size());
         return films;
     }
 
+    @Override
+    public List<Film> searchFilms(String query, int limit) {
+        List<Film> films = getFilmsByIds(textIndex.search(query, limit, leaderboard.ranking()));
+        log.info("Search films by \"{}\": {}.", query, films.size());
+        return films;
+    }
+
     @Override
     public void checkFilmExist(Integer id) {
         String sqlQuery = "SELECT COUNT(*) FROM FILMS WHERE FILM_ID=? ";
@@ -151,24 +362,176 @@ public class FilmDbStorage implements FilmStorage {
                 .orElseThrow(() -> new NotFoundException(String.format("No such film with this id:%s.", id)));
     }
 
+    @Override
+    public List<Film> getFilmsByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, Film> filmsById = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IN_BATCH_SIZE) {
+            List<Integer> batch = ids.subList(from, Math.min(from + IN_BATCH_SIZE, ids.size()));
+            String sql = SELECT_FILMS + "WHERE F.FILM_ID IN (" + placeholders(batch.size()) + ");";
+            jdbcTemplate.query(sql, rs -> {
+                Film film = makeFilm(rs);
+                filmsById.put(film.getId(), film);
+            }, batch.toArray());
+        }
+
+        List<Film> films = new ArrayList<>(filmsById.size());
+        ids.stream().map(filmsById::get).filter(Objects::nonNull).forEach(films::add);
+        return films;
+    }
+
+    private static String selectFilms(Set<FilmField> fields) {
+        if (fields.containsAll(FilmField.ALL)) {
+            return SELECT_FILMS;
+        }
+        StringBuilder sql = new StringBuilder("SELECT F.FILM_ID");
+        if (fields.contains(FilmField.NAME)) {
+            sql.append(", F.TITLE");
+        }
+        if (fields.contains(FilmField.DESCRIPTION)) {
+            sql.append(", F.DESCRIPTION");
+        }
+        if (fields.contains(FilmField.RELEASE_DATE)) {
+            sql.append(", F.RELEASE_DATE");
+        }
+        if (fields.contains(FilmField.DURATION)) {
+            sql.append(", F.DURATION");
+        }
+        if (fields.contains(FilmField.MPA)) {
+            sql.append(", R.*");
+        }
+        if (fields.contains(FilmField.GENRES)) {
+            sql.append(", ").append(GENRE_IDS);
+        }
+        sql.append(" FROM FILMS AS F ");
+        if (fields.contains(FilmField.MPA)) {
+            sql.append(JOIN_RATING);
+        }
+        return sql.toString();
+    }
+
     private Film makeFilm(ResultSet rs) throws SQLException {
-        Integer id = rs.getInt("FILM_ID");
-        String sqlGenre = "SELECT * FROM GENRE WHERE GENRE_ID IN (SELECT GENRE_ID FROM FILM_GENRE WHERE FILM_ID=?);";
-        List<Genre> genres = jdbcTemplate.query(sqlGenre, (result, rowNum) -> genreStorage.makeGenre(result), id);
+        return makeFilm(rs, FilmField.ALL);
+    }
+
+    private Film makeFilm(ResultSet rs, Set<FilmField> fields) throws SQLException {
+        Film.FilmBuilder film = Film.builder().id(rs.getInt("FILM_ID"));
+        if (fields.contains(FilmField.NAME)) {
+            film.name(rs.getString("TITLE"));
+        }
+        if (fields.contains(FilmField.DESCRIPTION)) {
+            film.description(rs.getString("DESCRIPTION"));
+        }
+        if (fields.contains(FilmField.RELEASE_DATE)) {
+            film.releaseDate(LocalDate.parse(rs.getString("RELEASE_DATE")));
+        }
+        if (fields.contains(FilmField.DURATION)) {
+            film.duration(rs.getInt("DURATION"));
+        }
+        if (fields.contains(FilmField.MPA)) {
+            film.mpa(mpaStorage.makeMpa(rs));
+        }
+        if (fields.contains(FilmField.GENRES)) {
+            List<Genre> genres = new ArrayList<>();
+            String genreIds = rs.getString("GENRE_IDS");
+            if (genreIds != null) {
+                for (String genreId : genreIds.split(",")) {
+                    genres.add(genreStorage.getGenre(Integer.valueOf(genreId)));
+                }
+            }
+            film.genres(genres);
+        }
+        return film.build();
+    }
+
+    private Film resolve(Film film) {
+        List<Genre> genres = new ArrayList<>();
+        if (film.getGenres() != null) {
+            film.getGenres().stream()
+                    .map(genre -> genreStorage.getGenre(genre.getId()))
+                    .distinct()
+                    .sorted(Comparator.comparing(Genre::getId))
+                    .forEach(genres::add);
+        }
         return Film.builder()
-                .id(rs.getInt("FILM_ID"))
-                .name(rs.getString("TITLE"))
-                .description(rs.getString("DESCRIPTION"))
-                .releaseDate(LocalDate.parse(rs.getString("RELEASE_DATE")))
-                .duration(rs.getInt("DURATION"))
-                .mpa(mpaStorage.makeMpa(rs))
+                .id(film.getId())
+                .name(film.getName())
+                .description(film.getDescription())
+                .releaseDate(film.getReleaseDate())
+                .duration(film.getDuration())
+                .mpa(mpaStorage.getMpa(film.getMpa().getId()))
                 .genres(genres)
                 .build();
     }
 
-    private void updateGenreForFilm(Integer filmId, List<Genre> genres) {
-        if (genres != null && !genres.isEmpty()) {
-            String sqlInsert = "MERGE INTO FILM_GENRE (FILM_ID, GENRE_ID) VALUES (?, ?) ";
+    private List<Integer> insertFilms(List<Film> films) {
+        String sql = "INSERT INTO FILMS (TITLE, DESCRIPTION, RELEASE_DATE, DURATION, RATING) VALUES (?, ?, ?, ?, ?);";
+        List<Integer> ids = jdbcTemplate.execute((ConnectionCallback<List<Integer>>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(sql, new String[]{"FILM_ID"})) {
+                for (Film film : films) {
+                    ps.setString(1, film.getName());
+                    ps.setString(2, film.getDescription());
+                    ps.setDate(3, Date.valueOf(film.getReleaseDate()));
+                    ps.setInt(4, film.getDuration());
+                    ps.setInt(5, film.getMpa().getId());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                List<Integer> keys = new ArrayList<>(films.size());
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    while (rs.next()) {
+                        keys.add(rs.getInt(1));
+                    }
+                }
+                return keys;
+            }
+        });
+
+        List<Object[]> filmGenres = new ArrayList<>();
+        for (int i = 0; i < films.size(); i++) {
+            List<Genre> genres = films.get(i).getGenres();
+            if (genres != null) {
+                for (Genre genre : genres) {
+                    filmGenres.add(new Object[]{ids.get(i), genre.getId()});
+                }
+            }
+        }
+        if (!filmGenres.isEmpty()) {
+            jdbcTemplate.batchUpdate("MERGE INTO FILM_GENRE (FILM_ID, GENRE_ID) VALUES (?, ?);", filmGenres);
+        }
+        return ids;
+    }
+
+    private Map<Long, Long> findLikedAt(List<Likes> likes) {
+        Map<Long, Long> likedAt = new HashMap<>();
+        for (int from = 0; from < likes.size(); from += IN_BATCH_SIZE) {
+            List<Likes> batch = likes.subList(from, Math.min(from + IN_BATCH_SIZE, likes.size()));
+            String sql = "SELECT USER_ID, FILM_ID, CREATED_AT FROM USER_FILM WHERE (USER_ID, FILM_ID) IN (" +
+                    String.join(",", Collections.nCopies(batch.size(), "(?, ?)")) + ");";
+            Object[] args = batch.stream().flatMap(like -> Stream.of(like.getUserId(), like.getFilmId())).toArray();
+            jdbcTemplate.query(sql, rs -> {
+                Timestamp createdAt = rs.getTimestamp("CREATED_AT");
+                if (createdAt != null) {
+                    likedAt.put(likeKey(rs.getInt("USER_ID"), rs.getInt("FILM_ID")), createdAt.getTime());
+                }
+            }, args);
+        }
+        return likedAt;
+    }
+
+    private static long likeKey(int userId, int filmId) {
+        return ((long) userId << 32) | (filmId & 0xFFFFFFFFL);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private void insertGenreForFilm(Integer filmId, List<Genre> genres) {
+        if (!genres.isEmpty()) {
+            String sqlInsert = "INSERT INTO FILM_GENRE (FILM_ID, GENRE_ID) VALUES (?, ?) ";
             jdbcTemplate.batchUpdate(sqlInsert, new BatchPreparedStatementSetter() {
                 @Override
                 public void setValues(PreparedStatement ps, int i) throws SQLException {
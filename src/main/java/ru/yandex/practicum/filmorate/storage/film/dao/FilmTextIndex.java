@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.storage.film.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.LikeRanking;
+
+import javax.annotation.PostConstruct;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+@Component
+@Slf4j
+@Profile("!memory")
+public class FilmTextIndex {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FilmSearchIndex index;
+
+    public FilmTextIndex(JdbcTemplate jdbcTemplate,
+                         @Value("${filmorate.search.like-boost:0.2}") double likeBoost) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.index = new FilmSearchIndex(likeBoost);
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        index.clear();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT FILM_ID, TITLE, DESCRIPTION FROM FILMS;");
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            index.put(rs.getInt("FILM_ID"), rs.getString("TITLE"), rs.getString("DESCRIPTION"));
+        });
+        log.info("Film search index rebuilt. Count of films {}.", index.size());
+    }
+
+    public void put(Integer filmId, String title, String description) {
+        index.put(filmId, title, description);
+    }
+
+    public void remove(Integer filmId) {
+        index.remove(filmId);
+    }
+
+    public List<Integer> search(String query, int limit, LikeRanking ranking) {
+        return index.search(query, limit, ranking);
+    }
+}
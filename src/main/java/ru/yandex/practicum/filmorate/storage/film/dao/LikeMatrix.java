@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.storage.film.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.LikeIndex;
+import ru.yandex.practicum.filmorate.storage.util.SortedIntAdjacency;
+
+import javax.annotation.PostConstruct;
+
+@Component
+@Slf4j
+@Profile("!memory")
+public class LikeMatrix implements LikeIndex {
+
+    private static final int STRIPES = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+    // keeps both directions of one (user, film) pair in step without serialising unrelated likes
+    private final Object[] stripes = new Object[STRIPES];
+    private final SortedIntAdjacency filmsByUser = new SortedIntAdjacency();
+    private final SortedIntAdjacency usersByFilm = new SortedIntAdjacency();
+
+    public LikeMatrix(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    public synchronized void rebuild() {
+        filmsByUser.replace(load("USER_ID", "FILM_ID"));
+        usersByFilm.replace(load("FILM_ID", "USER_ID"));
+        log.info("Like matrix rebuilt. Count of likes {}, memory {} bytes.", filmsByUser.edgeCount(), memoryBytes());
+    }
+
+    public void add(int userId, int filmId) {
+        synchronized (stripe(userId, filmId)) {
+            filmsByUser.add(userId, filmId);
+            usersByFilm.add(filmId, userId);
+        }
+    }
+
+    public void remove(int userId, int filmId) {
+        synchronized (stripe(userId, filmId)) {
+            filmsByUser.remove(userId, filmId);
+            usersByFilm.remove(filmId, userId);
+        }
+    }
+
+    public void removeUser(int userId) {
+        for (int filmId : filmsByUser.clear(userId)) {
+            synchronized (stripe(userId, filmId)) {
+                usersByFilm.remove(filmId, userId);
+            }
+        }
+    }
+
+    public void removeFilm(int filmId) {
+        for (int userId : usersByFilm.clear(filmId)) {
+            synchronized (stripe(userId, filmId)) {
+                filmsByUser.remove(userId, filmId);
+            }
+        }
+    }
+
+    @Override
+    public int[] getLikedFilms(int userId) {
+        return filmsByUser.get(userId);
+    }
+
+    @Override
+    public int[] getLikers(int filmId) {
+        return usersByFilm.get(filmId);
+    }
+
+    public long memoryBytes() {
+        return filmsByUser.memoryBytes() + usersByFilm.memoryBytes();
+    }
+
+    public boolean isConsistent() {
+        int userId = load("USER_ID", "FILM_ID").firstDifference(filmsByUser);
+        int filmId = load("FILM_ID", "USER_ID").firstDifference(usersByFilm);
+        if (userId >= 0 || filmId >= 0) {
+            log.warn("Like matrix differs from USER_FILM for user{} or film{}.", userId, filmId);
+            return false;
+        }
+        return true;
+    }
+
+    private Object stripe(int userId, int filmId) {
+        int hash = userId * 31 + filmId;
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private SortedIntAdjacency load(String rowColumn, String valueColumn) {
+        Integer maxId = jdbcTemplate.queryForObject(
+                String.format("SELECT MAX(%s) FROM USER_FILM;", rowColumn), Integer.class);
+        SortedIntAdjacency.Loader loader = SortedIntAdjacency.loader(maxId == null ? 0 : maxId + 1,
+                rowColumn, valueColumn);
+        jdbcTemplate.query(String.format("SELECT USER_ID, FILM_ID FROM USER_FILM ORDER BY %s, %s;",
+                rowColumn, valueColumn), loader);
+        return loader.finish();
+    }
+}
@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.storage.film.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.LikeRanking;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Slf4j
+@Profile("!memory")
+public class LikesLeaderboard {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LikeRanking ranking = new LikeRanking();
+
+    public LikesLeaderboard(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        Map<Integer, Integer> likes = loadLikes();
+        ranking.reset(likes);
+        String sql = "SELECT F.FILM_ID, EXTRACT(YEAR FROM F.RELEASE_DATE) AS RELEASE_YEAR, " +
+                "(SELECT LISTAGG(FG.GENRE_ID, ',') FROM FILM_GENRE AS FG WHERE FG.FILM_ID = F.FILM_ID) AS GENRE_IDS " +
+                "FROM FILMS AS F;";
+        jdbcTemplate.query(sql, rs -> {
+            String genreIds = rs.getString("GENRE_IDS");
+            ranking.setFacets(rs.getInt("FILM_ID"), rs.getInt("RELEASE_YEAR"), genreIds == null
+                    ? new int[0]
+                    : Arrays.stream(genreIds.split(",")).mapToInt(Integer::parseInt).toArray());
+        });
+        log.info("Likes leaderboard rebuilt. Count of liked films {}.", likes.size());
+    }
+
+    public void increment(Integer filmId) {
+        ranking.increment(filmId);
+    }
+
+    public void decrement(Integer filmId) {
+        ranking.decrement(filmId);
+    }
+
+    public void remove(Integer filmId) {
+        ranking.remove(filmId);
+    }
+
+    public void setFacets(Integer filmId, Film film) {
+        ranking.setFacets(filmId, film);
+    }
+
+    public List<Integer> top(int count) {
+        return ranking.top(count);
+    }
+
+    public List<Integer> top(int count, Integer genreId, Integer year) {
+        return ranking.top(count, genreId, year);
+    }
+
+    public LikeRanking ranking() {
+        return ranking;
+    }
+
+    public int getLikes(Integer filmId) {
+        return ranking.getLikes(filmId);
+    }
+
+    public boolean isConsistent() {
+        Map<Integer, Integer> expected = loadLikes();
+        Map<Integer, Integer> actual = ranking.snapshot();
+        if (!expected.equals(actual)) {
+            log.warn("Likes leaderboard differs from USER_FILM: {} liked films in memory, {} in database.",
+                    actual.size(), expected.size());
+            return false;
+        }
+        return true;
+    }
+
+    private Map<Integer, Integer> loadLikes() {
+        String sql = "SELECT FILM_ID, COUNT(*) AS LIKES FROM USER_FILM GROUP BY FILM_ID;";
+        Map<Integer, Integer> counts = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            counts.put(rs.getInt("FILM_ID"), rs.getInt("LIKES"));
+        });
+        return counts;
+    }
+}
@@ -0,0 +1,110 @@
+package ru.yandex.practicum.filmorate.storage.film.dao;
+
+import io.r2dbc.spi.Row;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmExport;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.film.ReactiveFilmStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.util.ReactiveDatabase;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Component
+@Slf4j
+@Profile("!memory")
+@ConditionalOnProperty(name = "filmorate.reactive.enabled", havingValue = "true", matchIfMissing = false)
+public class ReactiveFilmDbStorage implements ReactiveFilmStorage {
+
+    private final DatabaseClient client;
+    private final GenreStorage genreStorage;
+    private final LikesLeaderboard leaderboard;
+
+    public ReactiveFilmDbStorage(ReactiveDatabase database, GenreStorage genreStorage, LikesLeaderboard leaderboard) {
+        this.client = database.client();
+        this.genreStorage = genreStorage;
+        this.leaderboard = leaderboard;
+    }
+
+    @Override
+    public Mono<Film> getFilmById(Integer filmId) {
+        return client.sql(FilmDbStorage.SELECT_FILMS + "WHERE F.FILM_ID = :id")
+                .bind("id", filmId)
+                .map((row, metadata) -> makeFilm(row))
+                .one()
+                .switchIfEmpty(Mono.error(() ->
+                        new NotFoundException(String.format("No such film with this id:%s.", filmId))));
+    }
+
+    @Override
+    public Flux<Film> getFilms(Integer after, int limit) {
+        return client.sql(FilmDbStorage.SELECT_FILMS + "WHERE F.FILM_ID > :after ORDER BY F.FILM_ID LIMIT :limit")
+                .bind("after", after == null ? 0 : after)
+                .bind("limit", limit)
+                .map((row, metadata) -> makeFilm(row))
+                .all();
+    }
+
+    @Override
+    public Flux<FilmExport> exportFilms() {
+        return client.sql(FilmDbStorage.SELECT_FILMS + "ORDER BY F.FILM_ID")
+                .map((row, metadata) -> makeFilm(row))
+                .all()
+                .map(film -> new FilmExport(film, leaderboard.getLikes(film.getId())));
+    }
+
+    @Override
+    public Flux<Film> getPopular(Integer count, Integer genreId, Integer year) {
+        List<Integer> ids = leaderboard.top(count, genreId, year);
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return client.sql(FilmDbStorage.SELECT_FILMS + "WHERE F.FILM_ID IN (:ids)")
+                .bind("ids", ids)
+                .map((row, metadata) -> makeFilm(row))
+                .all()
+                .collectMap(Film::getId)
+                .flatMapIterable(films -> ordered(ids, films));
+    }
+
+    private static List<Film> ordered(List<Integer> ids, Map<Integer, Film> films) {
+        List<Film> result = new ArrayList<>(ids.size());
+        ids.stream().map(films::get).filter(Objects::nonNull).forEach(result::add);
+        return result;
+    }
+
+    private Film makeFilm(Row row) {
+        List<Genre> genres = new ArrayList<>();
+        String genreIds = row.get("GENRE_IDS", String.class);
+        if (genreIds != null) {
+            for (String genreId : genreIds.split(",")) {
+                genres.add(genreStorage.getGenre(Integer.valueOf(genreId)));
+            }
+        }
+        return Film.builder()
+                .id(row.get("FILM_ID", Integer.class))
+                .name(row.get("TITLE", String.class))
+                .description(row.get("DESCRIPTION", String.class))
+                .releaseDate(row.get("RELEASE_DATE", LocalDate.class))
+                .duration(row.get("DURATION", Integer.class))
+                .mpa(Mpa.builder()
+                        .id(row.get("RATING_ID", Integer.class))
+                        .name(row.get("RATING_NAME", String.class))
+                        .build())
+                .genres(genres)
+                .build();
+    }
+}
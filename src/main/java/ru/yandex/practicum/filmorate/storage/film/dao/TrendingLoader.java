@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.storage.film.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.TrendingCounters;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+
+/**
+ * Fills {@link TrendingCounters} from the likes in USER_FILM that are younger than the trending horizon.
+ */
+@Component
+@Slf4j
+@Profile("!memory")
+public class TrendingLoader {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TrendingCounters trending;
+
+    public TrendingLoader(JdbcTemplate jdbcTemplate, TrendingCounters trending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.trending = trending;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        trending.clear();
+        Timestamp since = new Timestamp(System.currentTimeMillis() - trending.horizon().toMillis());
+        jdbcTemplate.query("SELECT FILM_ID, CREATED_AT FROM USER_FILM WHERE CREATED_AT > ?;", rs -> {
+            trending.add(rs.getInt("FILM_ID"), rs.getTimestamp("CREATED_AT").getTime());
+        }, since);
+        log.info("Trending counters rebuilt. Count of trending films {}.", trending.activeFilms());
+    }
+}
@@ -0,0 +1,408 @@
+package ru.yandex.practicum.filmorate.storage.film.memory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmExport;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Likes;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.LikeIndex;
+import ru.yandex.practicum.filmorate.storage.film.LikeRanking;
+import ru.yandex.practicum.filmorate.storage.film.TrendingCounters;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+import ru.yandex.practicum.filmorate.storage.user.memory.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.util.IntLongHashMap;
+import ru.yandex.practicum.filmorate.storage.util.ResourceVersions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+@Component
+@Slf4j
+@Profile("memory")
+public class InMemoryFilmStorage implements FilmStorage, LikeIndex {
+
+    private final InMemoryUserStorage userStorage;
+    private final MpaStorage mpaStorage;
+    private final GenreStorage genreStorage;
+    private final ResourceVersions versions;
+    private final TrendingCounters trending;
+    private final LikeRanking ranking = new LikeRanking();
+    private final FilmSearchIndex searchIndex;
+    private final AtomicInteger lastId = new AtomicInteger();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private FilmRow[] rows = new FilmRow[1024];
+
+    public InMemoryFilmStorage(InMemoryUserStorage userStorage, MpaStorage mpaStorage, GenreStorage genreStorage,
+                               ResourceVersions versions,
+                               TrendingCounters trending,
+                               @Value("${filmorate.search.like-boost:0.2}") double likeBoost) {
+        this.userStorage = userStorage;
+        this.mpaStorage = mpaStorage;
+        this.genreStorage = genreStorage;
+        this.versions = versions;
+        this.trending = trending;
+        this.searchIndex = new FilmSearchIndex(likeBoost);
+    }
+
+    @Override
+    public Film addFilm(Film film) {
+        int id = lastId.incrementAndGet();
+        Film newFilm = resolve(film, id);
+        lock.writeLock().lock();
+        try {
+            if (id >= rows.length) {
+                rows = Arrays.copyOf(rows, Math.max(id + 1, rows.length * 2));
+            }
+            rows[id] = new FilmRow(newFilm);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        searchIndex.put(id, newFilm.getName(), newFilm.getDescription());
+        ranking.setFacets(id, newFilm);
+        versions.filmChanged(id);
+        log.info("Film added: {}.", newFilm);
+        return copy(newFilm);
+    }
+
+    @Override
+    public List<Integer> addFilms(List<Film> films) {
+        List<Integer> ids = new ArrayList<>(films.size());
+        films.forEach(film -> ids.add(addFilm(film).getId()));
+        return ids;
+    }
+
+    @Override
+    public void deleteFilm(Integer id) {
+        FilmRow row;
+        lock.writeLock().lock();
+        try {
+            row = find(id);
+            if (row == null) {
+                throw new NotFoundException(String.format("No such film with this id:%s.", id));
+            }
+            rows[id] = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (int userId : snapshot(row.likes)) {
+            userStorage.unlikeFilm(userId, id);
+        }
+        ranking.remove(id);
+        searchIndex.remove(id);
+        trending.remove(id);
+        versions.filmChanged(id);
+        log.info("film deleted. film id={}.", id);
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        Film newFilm = resolve(film, film.getId());
+        lock.writeLock().lock();
+        try {
+            FilmRow row = find(film.getId());
+            if (row == null) {
+                throw new NotFoundException(String.format("No such film with this id:%s.", film.getId()));
+            }
+            if (film.getGenres() == null) {
+                newFilm.setGenres(row.film.getGenres());
+            }
+            row.film = newFilm;
+            searchIndex.put(film.getId(), newFilm.getName(), newFilm.getDescription());
+            ranking.setFacets(film.getId(), newFilm);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        versions.filmChanged(film.getId());
+        log.info("Film updated. film{}.", newFilm);
+        return copy(newFilm);
+    }
+
+    @Override
+    public Film getFilmById(Integer filmId) {
+        return copy(getRow(filmId).film);
+    }
+
+    @Override
+    public Collection<Film> getAllFilms() {
+        return getFilms(0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Film> getFilms(Integer after, int limit) {
+        return getFilms(after, limit, FilmField.ALL);
+    }
+
+    @Override
+    public List<Film> getFilms(Integer after, int limit, Set<FilmField> fields) {
+        List<Film> films = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int id = after == null ? 1 : Math.max(1, after + 1); id < rows.length && films.size() < limit; id++) {
+                if (rows[id] != null) {
+                    films.add(copy(rows[id].film, fields));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        log.info("Get films after id={}. Count of films {}.", after, films.size());
+        return films;
+    }
+
+    @Override
+    public void exportFilms(Consumer<FilmExport> consumer) {
+        int id = 0;
+        List<Film> page;
+        do {
+            page = getFilms(id, 1000);
+            for (Film film : page) {
+                consumer.accept(new FilmExport(film, ranking.getLikes(film.getId())));
+                id = film.getId();
+            }
+        } while (!page.isEmpty());
+    }
+
+    @Override
+    public void addLike(Integer id, Integer userId) {
+        FilmRow row = row(id);
+        if (row == null) {
+            throw new NotFoundException(String.format("No such film with id:%s or user with id:%s.", id, userId));
+        }
+        synchronized (row.likes) {
+            if (row.likes.containsKey(userId)) {
+                throw new DuplicateKeyException(String.format("User%s already likes film%s.", userId, id));
+            }
+            if (!userStorage.likeFilm(userId, id)) {
+                throw new NotFoundException(String.format("No such film with id:%s or user with id:%s.", id, userId));
+            }
+            long likedAt = System.currentTimeMillis();
+            row.likes.putIfAbsent(userId, likedAt);
+            ranking.set(id, row.likes.size());
+            trending.add(id, likedAt);
+        }
+        versions.filmsChanged();
+        log.info("Like added to film with id={}.", id);
+    }
+
+    @Override
+    public void deleteLike(Integer id, Integer userId) {
+        FilmRow row = getRow(id);
+        userStorage.checkUserExist(userId);
+        synchronized (row.likes) {
+            long likedAt = row.likes.remove(userId);
+            if (likedAt != IntLongHashMap.MISSING) {
+                ranking.set(id, row.likes.size());
+                trending.remove(id, likedAt);
+            }
+            userStorage.unlikeFilm(userId, id);
+        }
+        versions.filmsChanged();
+        log.info("Like remove.");
+    }
+
+    @Override
+    public int[] addLikes(List<Likes> likes) {
+        int[] counts = new int[likes.size()];
+        for (int i = 0; i < likes.size(); i++) {
+            try {
+                addLike(likes.get(i).getFilmId(), likes.get(i).getUserId());
+                counts[i] = 1;
+            } catch (NotFoundException | DuplicateKeyException e) {
+                counts[i] = 0;
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public int[] deleteLikes(List<Likes> likes) {
+        int[] counts = new int[likes.size()];
+        for (int i = 0; i < likes.size(); i++) {
+            Likes like = likes.get(i);
+            FilmRow row = row(like.getFilmId());
+            if (row == null) {
+                continue;
+            }
+            synchronized (row.likes) {
+                long likedAt = row.likes.remove(like.getUserId());
+                if (likedAt != IntLongHashMap.MISSING) {
+                    ranking.set(like.getFilmId(), row.likes.size());
+                    trending.remove(like.getFilmId(), likedAt);
+                    counts[i] = 1;
+                }
+                userStorage.unlikeFilm(like.getUserId(), like.getFilmId());
+            }
+        }
+        versions.filmsChanged();
+        return counts;
+    }
+
+    @Override
+    public Collection<Film> getPopular(Integer count) {
+        return getPopular(count, null, null);
+    }
+
+    @Override
+    public Collection<Film> getPopular(Integer count, Integer genreId, Integer year) {
+        List<Film> films = new ArrayList<>();
+        for (Integer id : ranking.top(count, genreId, year)) {
+            FilmRow row = row(id);
+            if (row != null) {
+                films.add(copy(row.film));
+            }
+        }
+        log.info("Get top films: {}.", films.size());
+        return films;
+    }
+
+    @Override
+    public List<Film> searchFilms(String query, int limit) {
+        List<Film> films = getFilmsByIds(searchIndex.search(query, limit, ranking));
+        log.info("Search films by \"{}\": {}.", query, films.size());
+        return films;
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(List<Integer> ids) {
+        List<Film> films = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            FilmRow row = row(id);
+            if (row != null) {
+                films.add(copy(row.film));
+            }
+        }
+        return films;
+    }
+
+    @Override
+    public void checkFilmExist(Integer id) {
+        getRow(id);
+    }
+
+    @Override
+    public int[] getLikedFilms(int userId) {
+        return userStorage.getLikedFilmIds(userId);
+    }
+
+    @Override
+    public int[] getLikers(int filmId) {
+        FilmRow row = row(filmId);
+        return row == null ? new int[0] : snapshot(row.likes);
+    }
+
+    public void removeLikesOfUser(int userId, int[] filmIds) {
+        for (int filmId : filmIds) {
+            FilmRow row = row(filmId);
+            if (row != null) {
+                synchronized (row.likes) {
+                    long likedAt = row.likes.remove(userId);
+                    if (likedAt != IntLongHashMap.MISSING) {
+                        ranking.set(filmId, row.likes.size());
+                        trending.remove(filmId, likedAt);
+                    }
+                }
+            }
+        }
+        versions.filmsChanged();
+    }
+
+    private FilmRow getRow(Integer id) {
+        FilmRow row = row(id);
+        if (row == null) {
+            throw new NotFoundException(String.format("No such film with this id:%s.", id));
+        }
+        return row;
+    }
+
+    private FilmRow row(Integer id) {
+        lock.readLock().lock();
+        try {
+            return find(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private FilmRow find(Integer id) {
+        return id == null || id <= 0 || id >= rows.length ? null : rows[id];
+    }
+
+    private Film resolve(Film film, Integer id) {
+        List<Genre> genres = new ArrayList<>();
+        if (film.getGenres() != null) {
+            film.getGenres().stream()
+                    .map(genre -> genreStorage.getGenre(genre.getId()))
+                    .distinct()
+                    .sorted(Comparator.comparing(Genre::getId))
+                    .forEach(genres::add);
+        }
+        return Film.builder()
+                .id(id)
+                .name(film.getName())
+                .description(film.getDescription())
+                .releaseDate(film.getReleaseDate())
+                .duration(film.getDuration())
+                .mpa(mpaStorage.getMpa(film.getMpa().getId()))
+                .genres(genres)
+                .build();
+    }
+
+    private static int[] snapshot(IntLongHashMap likes) {
+        synchronized (likes) {
+            return likes.toSortedKeys();
+        }
+    }
+
+    private static Film copy(Film film, Set<FilmField> fields) {
+        if (fields.containsAll(FilmField.ALL)) {
+            return copy(film);
+        }
+        return Film.builder()
+                .id(film.getId())
+                .name(fields.contains(FilmField.NAME) ? film.getName() : null)
+                .description(fields.contains(FilmField.DESCRIPTION) ? film.getDescription() : null)
+                .releaseDate(fields.contains(FilmField.RELEASE_DATE) ? film.getReleaseDate() : null)
+                .duration(fields.contains(FilmField.DURATION) ? film.getDuration() : null)
+                .mpa(fields.contains(FilmField.MPA) ? film.getMpa() : null)
+                .genres(fields.contains(FilmField.GENRES) ? new ArrayList<>(film.getGenres()) : null)
+                .build();
+    }
+
+    private static Film copy(Film film) {
+        return Film.builder()
+                .id(film.getId())
+                .name(film.getName())
+                .description(film.getDescription())
+                .releaseDate(film.getReleaseDate())
+                .duration(film.getDuration())
+                .mpa(film.getMpa())
+                .genres(new ArrayList<>(film.getGenres()))
+                .build();
+    }
+
+    private static class FilmRow {
+        private volatile Film film;
+        // liker id to like time, so a removed like leaves the trending bucket it was counted in
+        private final IntLongHashMap likes = new IntLongHashMap();
+
+        FilmRow(Film film) {
+            this.film = film;
+        }
+    }
+}
@@ -16,4 +16,6 @@ public interface GenreStorage {
 
     void checkGenreExist(Integer id);
 
+    void refresh();
+
 }
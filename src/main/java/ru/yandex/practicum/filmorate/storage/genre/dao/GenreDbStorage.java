@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.storage.genre.dao;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Primary;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
@@ -7,15 +8,21 @@ import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
 
+import javax.annotation.PostConstruct;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 @Component
+@Slf4j
 @Primary
 public class GenreDbStorage implements GenreStorage {
     private final JdbcTemplate jdbcTemplate;
+    private volatile Map<Integer, Genre> genres = Collections.emptyMap();
 
     public GenreDbStorage(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
@@ -23,32 +30,46 @@ public class GenreDbStorage implements GenreStorage {
 
     @Override
     public Genre makeGenre(ResultSet rs) throws SQLException {
+        Integer id = rs.getInt("GENRE_ID");
+        Genre genre = genres.get(id);
+        if (genre != null) {
+            return genre;
+        }
         return Genre.builder()
-                .id(rs.getInt("GENRE_ID"))
+                .id(id)
                 .name(rs.getString("GENRE_NAME"))
                 .build();
     }
 
     @Override
     public Genre getGenre(Integer id) {
-        checkGenreExist(id);
-        String sql = "SELECT * FROM GENRE WHERE GENRE_ID=?;";
-        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> makeGenre(rs), id);
-
+        return Optional.ofNullable(genres.get(id))
+                .orElseThrow(() -> new NotFoundException(String.format("No such genre exist with this id:%s.", id)));
     }
 
     @Override
     public Collection<Genre> getAllGenres() {
-        String sql = "SELECT * FROM GENRE ORDER BY GENRE_ID;";
-        return jdbcTemplate.query(sql, (rs, rowNum) -> makeGenre(rs));
+        return genres.values();
     }
 
     @Override
     public void checkGenreExist(Integer id) {
-        String sqlQuery = "SELECT COUNT(*) FROM GENRE WHERE GENRE_ID=?";
+        getGenre(id);
+    }
 
-        Optional.ofNullable(jdbcTemplate.queryForObject(sqlQuery, Integer.class, id))
-                .filter(result -> result == 1)
-                .orElseThrow(() -> new NotFoundException(String.format("No such genre exist with this id:%s.", id)));
+    @Override
+    @PostConstruct
+    public void refresh() {
+        String sql = "SELECT * FROM GENRE ORDER BY GENRE_ID;";
+        Map<Integer, Genre> loaded = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            Genre genre = Genre.builder()
+                    .id(rs.getInt("GENRE_ID"))
+                    .name(rs.getString("GENRE_NAME"))
+                    .build();
+            loaded.put(genre.getId(), genre);
+        });
+        genres = Collections.unmodifiableMap(loaded);
+        log.info("Genres loaded. Count of genres {}.", genres.size());
     }
 }
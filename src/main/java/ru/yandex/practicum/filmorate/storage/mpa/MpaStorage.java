@@ -15,4 +15,7 @@ public interface MpaStorage {
     Collection<Mpa> getAllMpa();
 
     void checkMpaExist(Integer id);
+
+    void refresh();
+
 }
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.storage.mpa.dao;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Primary;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
@@ -7,16 +8,22 @@ import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
 
+import javax.annotation.PostConstruct;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 @Component
+@Slf4j
 @Primary
 public class MpaDbStorage implements MpaStorage {
 
     private final JdbcTemplate jdbcTemplate;
+    private volatile Map<Integer, Mpa> ratings = Collections.emptyMap();
 
     public MpaDbStorage(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
@@ -24,32 +31,47 @@ public class MpaDbStorage implements MpaStorage {
 
     @Override
     public Mpa makeMpa(ResultSet rs) throws SQLException {
+        Integer id = rs.getInt("RATING_ID");
+        Mpa mpa = ratings.get(id);
+        if (mpa != null) {
+            return mpa;
+        }
         return Mpa.builder()
-                .id(rs.getInt("RATING_ID"))
+                .id(id)
                 .name(rs.getString("RATING_NAME"))
                 .build();
     }
 
     @Override
     public Mpa getMpa(Integer id) {
-        checkMpaExist(id);
-        String sql = "SELECT * FROM RATING WHERE RATING_ID=?;";
-        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> makeMpa(rs), id);
+        return Optional.ofNullable(ratings.get(id))
+                .orElseThrow(() -> new NotFoundException(String.format("No such MPA rating film exist with this id:%s.", id)));
     }
 
 
     @Override
     public Collection<Mpa> getAllMpa() {
-        String sql = "SELECT * FROM RATING;";
-        return jdbcTemplate.query(sql, (rs, rowNum) -> makeMpa(rs));
+        return ratings.values();
     }
 
     @Override
     public void checkMpaExist(Integer id) {
-        String sqlQuery = "SELECT COUNT(*) FROM RATING WHERE RATING_ID=?;";
-        Optional.ofNullable(jdbcTemplate.queryForObject(sqlQuery, Integer.class, id))
-                .filter(result -> result == 1)
-                .orElseThrow(() -> new NotFoundException(String.format("No such MPA rating film exist with this id:%s.", id)));
+        getMpa(id);
     }
 
+    @Override
+    @PostConstruct
+    public void refresh() {
+        String sql = "SELECT * FROM RATING ORDER BY RATING_ID;";
+        Map<Integer, Mpa> loaded = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            Mpa mpa = Mpa.builder()
+                    .id(rs.getInt("RATING_ID"))
+                    .name(rs.getString("RATING_NAME"))
+                    .build();
+            loaded.put(mpa.getId(), mpa);
+        });
+        ratings = Collections.unmodifiableMap(loaded);
+        log.info("MPA ratings loaded. Count of ratings {}.", ratings.size());
+    }
 }
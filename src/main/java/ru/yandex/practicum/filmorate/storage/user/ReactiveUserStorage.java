@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.User;
+
+public interface ReactiveUserStorage {
+
+    Mono<User> getUserById(Integer id);
+
+    Flux<User> getUsers(Integer after, int limit);
+
+    Flux<User> exportUsers();
+
+    Flux<User> getFriends(Integer id);
+}
@@ -1,12 +1,19 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface UserStorage {
     User addUser(User user);
 
+    List<Integer> addUsers(List<User> users);
+
     void deleteUser(Integer id);
 
     User getUserById(Integer id);
@@ -15,13 +22,29 @@ public interface UserStorage {
 
     Collection<User> getAllUsers();
 
+    List<User> getUsers(Integer after, int limit);
+
+    List<User> getUsers(Integer after, int limit, Set<UserField> fields);
+
+    void exportUsers(Consumer<User> consumer);
+
     void checkUserExist(Integer id);
 
     void addFriend(Integer id, Integer friendId);
 
     Collection<User> getFriends(Integer id);
 
+    Collection<User> getFriends(Integer id, Set<UserField> fields);
+
+    int[] getFriendIds(Integer id);
+
+    int[] getFollowerIds(Integer id);
+
+    List<User> getUsersByIds(List<Integer> ids);
+
     void deleteFriend(Integer id, Integer friendId);
 
+    int[] addFriends(List<Friendship> friendships);
+
     Collection<User> getCommonFriends(Integer id, Integer otherId);
 }
@@ -0,0 +1,134 @@
+package ru.yandex.practicum.filmorate.storage.user.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.util.SortedIntAdjacency;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+
+@Component
+@Slf4j
+@Profile("!memory")
+public class FriendGraph {
+
+    private static final int GALLOP_RATIO = 16;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SortedIntAdjacency adjacency = new SortedIntAdjacency();
+
+    public FriendGraph(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public synchronized void rebuild() {
+        adjacency.replace(load());
+        log.info("Friend graph rebuilt. Count of friendships {}, memory {} bytes.", edgeCount(), memoryBytes());
+    }
+
+    public void add(int userId, int friendId) {
+        adjacency.add(userId, friendId);
+    }
+
+    public void remove(int userId, int friendId) {
+        adjacency.remove(userId, friendId);
+    }
+
+    public void removeUser(int userId, int[] followers) {
+        adjacency.clear(userId);
+        for (int follower : followers) {
+            adjacency.remove(follower, userId);
+        }
+    }
+
+    public int[] friends(int userId) {
+        return adjacency.get(userId);
+    }
+
+    public int[] common(int userId, int otherId) {
+        int[] first = friends(userId);
+        int[] second = friends(otherId);
+        if (first.length > second.length) {
+            int[] swap = first;
+            first = second;
+            second = swap;
+        }
+        if (first.length == 0) {
+            return SortedIntAdjacency.EMPTY;
+        }
+        return (long) first.length * GALLOP_RATIO < second.length ? gallop(first, second) : merge(first, second);
+    }
+
+    public long edgeCount() {
+        return adjacency.edgeCount();
+    }
+
+    public long memoryBytes() {
+        return adjacency.memoryBytes();
+    }
+
+    public boolean isConsistent() {
+        int userId = load().firstDifference(adjacency);
+        if (userId >= 0) {
+            log.warn("Friend graph differs from FRIENDS for user{}.", userId);
+            return false;
+        }
+        return true;
+    }
+
+    private SortedIntAdjacency load() {
+        Integer maxId = jdbcTemplate.queryForObject("SELECT MAX(USER_ID) FROM FRIENDS;", Integer.class);
+        SortedIntAdjacency.Loader loader = SortedIntAdjacency.loader(maxId == null ? 0 : maxId + 1,
+                "USER_ID", "FRIEND_ID");
+        jdbcTemplate.query("SELECT USER_ID, FRIEND_ID FROM FRIENDS ORDER BY USER_ID, FRIEND_ID;", loader);
+        return loader.finish();
+    }
+
+    private static int[] merge(int[] first, int[] second) {
+        int[] result = new int[first.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static int[] gallop(int[] small, int[] large) {
+        int[] result = new int[small.length];
+        int count = 0;
+        int low = 0;
+        for (int value : small) {
+            int step = 1;
+            int high = low;
+            while (high < large.length && large[high] < value) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int index = Arrays.binarySearch(large, low, Math.min(high + 1, large.length), value);
+            if (index >= 0) {
+                result[count++] = value;
+                low = index + 1;
+            } else {
+                low = -index - 1;
+            }
+            if (low >= large.length) {
+                break;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.storage.user.dao;
+
+import io.r2dbc.spi.Row;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.ReactiveUserStorage;
+import ru.yandex.practicum.filmorate.storage.util.ReactiveDatabase;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+@Profile("!memory")
+@ConditionalOnProperty(name = "filmorate.reactive.enabled", havingValue = "true", matchIfMissing = false)
+public class ReactiveUserDbStorage implements ReactiveUserStorage {
+
+    private final DatabaseClient client;
+    private final FriendGraph friendGraph;
+
+    public ReactiveUserDbStorage(ReactiveDatabase database, FriendGraph friendGraph) {
+        this.client = database.client();
+        this.friendGraph = friendGraph;
+    }
+
+    @Override
+    public Mono<User> getUserById(Integer id) {
+        return client.sql("SELECT * FROM USERS WHERE USER_ID = :id")
+                .bind("id", id)
+                .map((row, metadata) -> makeUser(row))
+                .one()
+                .switchIfEmpty(Mono.error(() ->
+                        new NotFoundException(String.format("No such user with this id:%s.", id))));
+    }
+
+    @Override
+    public Flux<User> getUsers(Integer after, int limit) {
+        return client.sql("SELECT * FROM USERS WHERE USER_ID > :after ORDER BY USER_ID LIMIT :limit")
+                .bind("after", after == null ? 0 : after)
+                .bind("limit", limit)
+                .map((row, metadata) -> makeUser(row))
+                .all();
+    }
+
+    @Override
+    public Flux<User> exportUsers() {
+        return client.sql("SELECT * FROM USERS ORDER BY USER_ID")
+                .map((row, metadata) -> makeUser(row))
+                .all()
+                .map(user -> {
+                    user.setFriends(Arrays.stream(friendGraph.friends(user.getId()))
+                            .boxed()
+                            .collect(Collectors.toCollection(LinkedHashSet::new)));
+                    return user;
+                });
+    }
+
+    @Override
+    public Flux<User> getFriends(Integer id) {
+        int[] friendIds = friendGraph.friends(id);
+        if (friendIds.length == 0) {
+            return getUserById(id).thenMany(Flux.empty());
+        }
+        List<Integer> ids = Arrays.stream(friendIds).boxed().collect(Collectors.toList());
+        return client.sql("SELECT * FROM USERS WHERE USER_ID IN (:ids)")
+                .bind("ids", ids)
+                .map((row, metadata) -> makeUser(row))
+                .all()
+                .collectMap(User::getId)
+                .flatMapIterable(users -> ids.stream()
+                        .map(users::get)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList()));
+    }
+
+    private User makeUser(Row row) {
+        return User.builder()
+                .id(row.get("USER_ID", Integer.class))
+                .email(row.get("EMAIL", String.class))
+                .login(row.get("LOGIN", String.class))
+                .name(row.get("NAME", String.class))
+                .birthday(row.get("BIRTHDAY", LocalDate.class))
+                .build();
+    }
+}
@@ -1,55 +1,144 @@
 package ru.yandex.practicum.filmorate.storage.user.dao;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+import ru.yandex.practicum.filmorate.storage.film.TrendingCounters;
+import ru.yandex.practicum.filmorate.storage.film.dao.LikeMatrix;
+import ru.yandex.practicum.filmorate.storage.film.dao.LikesLeaderboard;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.storage.util.ResourceVersions;
 
+import java.sql.Date;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Component
 @Slf4j
 @Primary
+@Profile("!memory")
 public class UserDbStorage implements UserStorage {
 
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    private static final int IN_BATCH_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
+    private final LikesLeaderboard leaderboard;
+    private final LikeMatrix likeMatrix;
+    private final TrendingCounters trending;
+    private final FriendGraph friendGraph;
+    private final ResourceVersions versions;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final SimpleJdbcInsert userInsert;
 
-    public UserDbStorage(JdbcTemplate jdbcTemplate) {
+    public UserDbStorage(JdbcTemplate jdbcTemplate,
+                         LikesLeaderboard leaderboard,
+                         LikeMatrix likeMatrix,
+                         TrendingCounters trending,
+                         FriendGraph friendGraph,
+                         ResourceVersions versions,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${filmorate.bulk.chunk-size:1000}") int chunkSize) {
         this.jdbcTemplate = jdbcTemplate;
+        this.leaderboard = leaderboard;
+        this.likeMatrix = likeMatrix;
+        this.trending = trending;
+        this.friendGraph = friendGraph;
+        this.versions = versions;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.userInsert = new SimpleJdbcInsert(jdbcTemplate)
+                .withTableName("USERS")
+                .usingColumns("EMAIL", "LOGIN", "NAME", "BIRTHDAY")
+                .usingGeneratedKeyColumns("USER_ID");
     }
 
     @Override
     public User addUser(User user) {
-         SimpleJdbcInsert simpleJdbcInsert = new SimpleJdbcInsert(jdbcTemplate)
-                .withTableName("USERS")
-                .usingGeneratedKeyColumns("USER_ID");
-        User newUser = getUserById(simpleJdbcInsert.executeAndReturnKey(toMap(user)).intValue());
+        User newUser = copy(user);
+        newUser.setId(userInsert.executeAndReturnKey(toMap(user)).intValue());
+        versions.userChanged(newUser.getId());
         log.info("User added. user{}.", newUser);
         return newUser;
     }
 
+    @Override
+    public List<Integer> addUsers(List<User> users) {
+        String sql = "INSERT INTO USERS (EMAIL, LOGIN, NAME, BIRTHDAY) VALUES (?, ?, ?, ?);";
+        List<Integer> ids = new ArrayList<>(users.size());
+        for (int from = 0; from < users.size(); from += chunkSize) {
+            List<User> chunk = users.subList(from, Math.min(from + chunkSize, users.size()));
+            transactionTemplate.executeWithoutResult(status -> ids.addAll(
+                    jdbcTemplate.execute((ConnectionCallback<List<Integer>>) con -> {
+                        try (PreparedStatement ps = con.prepareStatement(sql, new String[]{"USER_ID"})) {
+                            for (User user : chunk) {
+                                ps.setString(1, user.getEmail());
+                                ps.setString(2, user.getLogin());
+                                ps.setString(3, user.getName());
+                                ps.setDate(4, Date.valueOf(user.getBirthday()));
+                                ps.addBatch();
+                            }
+                            ps.executeBatch();
+                            List<Integer> keys = new ArrayList<>(chunk.size());
+                            try (ResultSet rs = ps.getGeneratedKeys()) {
+                                while (rs.next()) {
+                                    keys.add(rs.getInt(1));
+                                }
+                            }
+                            return keys;
+                        }
+                    })));
+        }
+        ids.forEach(versions::userChanged);
+        log.info("Users added: {}.", ids.size());
+        return ids;
+    }
+
     @Override
     public User updateUser(User user) {
         Integer userId = user.getId();
-        checkUserExist(userId);
         String updateSql = "UPDATE USERS SET EMAIL=?, LOGIN=?, NAME=?, BIRTHDAY=? WHERE USER_ID=?;";
-        jdbcTemplate.update(updateSql,
+        int updated = jdbcTemplate.update(updateSql,
                 user.getEmail(),
                 user.getLogin(),
                 user.getName(),
                 user.getBirthday(),
                 userId);
-        User newUser = getUserById(userId);
+        if (updated == 0) {
+            throw new NotFoundException(String.format("No such user with this id:%s.", userId));
+        }
+        User newUser = copy(user);
+        versions.userChanged(userId);
         log.info("User updated. User{}.", newUser);
         return newUser;
     }
@@ -57,8 +146,9 @@ public class UserDbStorage implements UserStorage {
     @Override
     public User getUserById(Integer id) {
         String sql = "SELECT * FROM USERS WHERE USER_ID=?;";
-        checkUserExist(id);
-        User user = jdbcTemplate.queryForObject(sql, (rs, rowNum) -> makeUser(rs), id);
+        User user = jdbcTemplate.query(sql, (rs, rowNum) -> makeUser(rs), id).stream()
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException(String.format("No such user with this id:%s.", id)));
         log.info("Get user. {}.", user);
         return user;
     }
@@ -71,55 +161,200 @@ public class UserDbStorage implements UserStorage {
         return users;
     }
 
+    @Override
+    public List<User> getUsers(Integer after, int limit) {
+        return getUsers(after, limit, UserField.ALL);
+    }
+
+    @Override
+    public List<User> getUsers(Integer after, int limit, Set<UserField> fields) {
+        String sql = selectUsers(fields) + "WHERE USER_ID > ? ORDER BY USER_ID LIMIT ?;";
+        List<User> users = jdbcTemplate.query(sql, (rs, rowNum) -> makeUser(rs, fields),
+                after == null ? 0 : after, limit);
+        log.info("Get users after id={}. Count of users {}.", after, users.size());
+        return users;
+    }
+
+    @Override
+    public void exportUsers(Consumer<User> consumer) {
+        String sql = "SELECT U.*, " +
+                "(SELECT LISTAGG(F.FRIEND_ID, ',') WITHIN GROUP (ORDER BY F.FRIEND_ID) " +
+                "FROM FRIENDS AS F WHERE F.USER_ID = U.USER_ID) AS FRIEND_IDS " +
+                "FROM USERS AS U " +
+                "ORDER BY U.USER_ID;";
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            User user = makeUser(rs);
+            String friendIds = rs.getString("FRIEND_IDS");
+            Set<Integer> friends = friendIds == null ? Set.of() : Arrays.stream(friendIds.split(","))
+                    .map(Integer::valueOf)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            user.setFriends(friends);
+            consumer.accept(user);
+        });
+        log.info("Users exported.");
+    }
+
     @Override
     public void deleteUser(Integer id) {
-        checkUserExist(id);
-        User user = getUserById(id);
-        jdbcTemplate.update("DELETE FROM USERS WHERE USER_ID=?;", id);
-        log.info("User deleted. {} ", user);
+        Map<Integer, Long> likedFilms = new HashMap<>();
+        List<Integer> followerIds = new ArrayList<>();
+        // the indexes are updated from the rows the deletes return, a like or friendship added
+        // concurrently is either among them or fails on the missing user
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.query("SELECT FILM_ID, CREATED_AT FROM OLD TABLE (DELETE FROM USER_FILM WHERE USER_ID=?);",
+                    rs -> {
+                        Timestamp createdAt = rs.getTimestamp("CREATED_AT");
+                        likedFilms.put(rs.getInt("FILM_ID"), createdAt == null ? null : createdAt.getTime());
+                    }, id);
+            followerIds.addAll(jdbcTemplate.queryForList(
+                    "SELECT USER_ID FROM OLD TABLE (DELETE FROM FRIENDS WHERE FRIEND_ID=?);", Integer.class, id));
+            if (jdbcTemplate.update("DELETE FROM USERS WHERE USER_ID=?;", id) == 0) {
+                throw new NotFoundException(String.format("No such user with this id:%s.", id));
+            }
+        });
+        int[] followers = followerIds.stream().mapToInt(Integer::intValue).toArray();
+        likedFilms.forEach((filmId, likedAt) -> {
+            leaderboard.decrement(filmId);
+            if (likedAt != null) {
+                trending.remove(filmId, likedAt);
+            }
+        });
+        likeMatrix.removeUser(id);
+        friendGraph.removeUser(id, followers);
+        versions.userChanged(id);
+        if (!likedFilms.isEmpty()) {
+            versions.filmsChanged();
+        }
+        log.info("User deleted. user id={}.", id);
     }
 
     @Override
     public void addFriend(Integer id, Integer friendId) {
-        checkUserExist(id);
-        checkUserExist(friendId);
         String sql = "INSERT INTO FRIENDS (USER_ID, FRIEND_ID) VALUES(?, ?);";
-        jdbcTemplate.update(sql, id, friendId);
-        log.info("User{} added a friend{}.", getUserById(id), getUserById(friendId));
+        try {
+            jdbcTemplate.update(sql, id, friendId);
+        } catch (DuplicateKeyException e) {
+            throw e;
+        } catch (DataIntegrityViolationException e) {
+            throw new NotFoundException(String.format("No such user with id:%s or id:%s.", id, friendId));
+        }
+        friendGraph.add(id, friendId);
+        versions.userChanged(id);
+        log.info("User{} added a friend{}.", id, friendId);
     }
 
     @Override
     public void deleteFriend(Integer id, Integer friendId) {
-        checkUserExist(id);
-        checkUserExist(friendId);
-        User user = getUserById(id);
-        User friend = getUserById(friendId);
         String sql = "DELETE FROM FRIENDS WHERE USER_ID=? AND FRIEND_ID=?;";
-        jdbcTemplate.update(sql, id, friendId);
-        log.info("User{} added a friend{}.", user, friend);
+        if (jdbcTemplate.update(sql, id, friendId) == 0) {
+            checkUserExist(id);
+            checkUserExist(friendId);
+        }
+        friendGraph.remove(id, friendId);
+        versions.userChanged(id);
+        log.info("User{} deleted a friend{}.", id, friendId);
+    }
+
+    @Override
+    public int[] addFriends(List<Friendship> friendships) {
+        String sql = "INSERT INTO FRIENDS (USER_ID, FRIEND_ID) " +
+                "SELECT ?, ? FROM DUAL " +
+                "WHERE EXISTS (SELECT 1 FROM USERS WHERE USER_ID=?) " +
+                "AND EXISTS (SELECT 1 FROM USERS WHERE USER_ID=?) " +
+                "AND NOT EXISTS (SELECT 1 FROM FRIENDS WHERE USER_ID=? AND FRIEND_ID=?);";
+        int[] counts = new int[friendships.size()];
+        for (int from = 0; from < friendships.size(); from += chunkSize) {
+            List<Friendship> chunk = friendships.subList(from, Math.min(from + chunkSize, friendships.size()));
+            int[] chunkCounts = transactionTemplate.execute(status ->
+                    jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Friendship friendship = chunk.get(i);
+                            ps.setInt(1, friendship.getUserId());
+                            ps.setInt(2, friendship.getFriendId());
+                            ps.setInt(3, friendship.getUserId());
+                            ps.setInt(4, friendship.getFriendId());
+                            ps.setInt(5, friendship.getUserId());
+                            ps.setInt(6, friendship.getFriendId());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    }));
+            System.arraycopy(chunkCounts, 0, counts, from, chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                if (chunkCounts[i] > 0) {
+                    friendGraph.add(chunk.get(i).getUserId(), chunk.get(i).getFriendId());
+                    versions.userChanged(chunk.get(i).getUserId());
+                }
+            }
+        }
+        log.info("Friends added: {}.", Arrays.stream(counts).sum());
+        return counts;
     }
 
     @Override
     public Collection<User> getFriends(Integer id) {
-        checkUserExist(id);
-        String sql = "SELECT * FROM USERS WHERE USER_ID IN " +
-                "(SELECT FRIEND_ID FROM FRIENDS WHERE USER_ID=?)";
-        Collection<User> userFriends = jdbcTemplate.query(sql, (rs, rowNum) -> makeUser(rs), id);
+        return getFriends(id, UserField.ALL);
+    }
+
+    @Override
+    public Collection<User> getFriends(Integer id, Set<UserField> fields) {
+        int[] friendIds = friendGraph.friends(id);
+        if (friendIds.length == 0) {
+            checkUserExist(id);
+        }
+        List<User> userFriends = getUsersByIds(friendIds, fields);
         log.info("User{} get list of friends", id);
         return userFriends;
     }
 
     @Override
-    public Collection<User> getCommonFriends(Integer id, Integer otherId) {
-        checkUserExist(id);
-        checkUserExist(otherId);
+    public int[] getFriendIds(Integer id) {
+        return friendGraph.friends(id);
+    }
 
-        String sql = "SELECT U.* " +
-                "FROM USERS AS U " +
-                "JOIN FRIENDS F1 ON U.USER_ID = F1.FRIEND_ID AND F1.USER_ID = ?" +
-                "JOIN FRIENDS F2 ON U.USER_ID = F2.FRIEND_ID AND F2.USER_ID = ?";
+    @Override
+    public int[] getFollowerIds(Integer id) {
+        return jdbcTemplate.queryForList("SELECT USER_ID FROM FRIENDS WHERE FRIEND_ID=? ORDER BY USER_ID;",
+                Integer.class, id).stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    public List<User> getUsersByIds(List<Integer> ids) {
+        return getUsersByIds(ids, UserField.ALL);
+    }
+
+    private List<User> getUsersByIds(List<Integer> ids, Set<UserField> fields) {
+        Map<Integer, User> usersById = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IN_BATCH_SIZE) {
+            List<Integer> batch = ids.subList(from, Math.min(from + IN_BATCH_SIZE, ids.size()));
+            String sql = selectUsers(fields) + "WHERE USER_ID IN (" +
+                    String.join(",", Collections.nCopies(batch.size(), "?")) + ");";
+            jdbcTemplate.query(sql, rs -> {
+                User user = makeUser(rs, fields);
+                usersById.put(user.getId(), user);
+            }, batch.toArray());
+        }
+        List<User> users = new ArrayList<>(usersById.size());
+        ids.stream().map(usersById::get).filter(Objects::nonNull).forEach(users::add);
+        return users;
+    }
 
-        Collection<User> commonFriends = jdbcTemplate.query(sql, (rs, rowNum) -> makeUser(rs), id, otherId);
+    @Override
+    public Collection<User> getCommonFriends(Integer id, Integer otherId) {
+        int[] commonIds = friendGraph.common(id, otherId);
+        if (commonIds.length == 0) {
+            checkUserExist(id);
+            checkUserExist(otherId);
+        }
+        List<User> commonFriends = getUsersByIds(commonIds, UserField.ALL);
 
         log.info("Count of same friends of user{} with user{}: {}.", id, otherId, commonFriends.size());
 
@@ -134,13 +369,58 @@ public class UserDbStorage implements UserStorage {
                 .orElseThrow(() -> new NotFoundException(String.format("No such user with this id:%s.", id)));
     }
 
+    private List<User> getUsersByIds(int[] ids, Set<UserField> fields) {
+        return getUsersByIds(Arrays.stream(ids).boxed().collect(Collectors.toList()), fields);
+    }
+
+    private static String selectUsers(Set<UserField> fields) {
+        if (fields.containsAll(UserField.ALL)) {
+            return "SELECT * FROM USERS ";
+        }
+        StringBuilder sql = new StringBuilder("SELECT USER_ID");
+        if (fields.contains(UserField.EMAIL)) {
+            sql.append(", EMAIL");
+        }
+        if (fields.contains(UserField.LOGIN)) {
+            sql.append(", LOGIN");
+        }
+        if (fields.contains(UserField.NAME)) {
+            sql.append(", NAME");
+        }
+        if (fields.contains(UserField.BIRTHDAY)) {
+            sql.append(", BIRTHDAY");
+        }
+        return sql.append(" FROM USERS ").toString();
+    }
+
     private User makeUser(ResultSet rs) throws SQLException {
+        return makeUser(rs, UserField.ALL);
+    }
+
+    private User makeUser(ResultSet rs, Set<UserField> fields) throws SQLException {
+        User.UserBuilder user = User.builder().id(rs.getInt("USER_ID"));
+        if (fields.contains(UserField.EMAIL)) {
+            user.email(rs.getString("EMAIL"));
+        }
+        if (fields.contains(UserField.LOGIN)) {
+            user.login(rs.getString("LOGIN"));
+        }
+        if (fields.contains(UserField.NAME)) {
+            user.name(rs.getString("NAME"));
+        }
+        if (fields.contains(UserField.BIRTHDAY)) {
+            user.birthday(LocalDate.parse(rs.getString("BIRTHDAY")));
+        }
+        return user.build();
+    }
+
+    private User copy(User user) {
         return User.builder()
-                .id(rs.getInt("USER_ID"))
-                .email(rs.getString("EMAIL"))
-                .login(rs.getString("LOGIN"))
-                .name(rs.getString("NAME"))
-                .birthday(LocalDate.parse(rs.getString("BIRTHDAY")))
+                .id(user.getId())
+                .email(user.getEmail())
+                .login(user.getLogin())
+                .name(user.getName())
+                .birthday(user.getBirthday())
                 .build();
     }
 
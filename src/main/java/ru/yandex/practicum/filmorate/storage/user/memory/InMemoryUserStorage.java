@@ -0,0 +1,363 @@
+package ru.yandex.practicum.filmorate.storage.user.memory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+import ru.yandex.practicum.filmorate.storage.film.memory.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.storage.util.IntHashSet;
+import ru.yandex.practicum.filmorate.storage.util.ResourceVersions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+@Component
+@Slf4j
+@Profile("memory")
+public class InMemoryUserStorage implements UserStorage {
+
+    private final ObjectProvider<InMemoryFilmStorage> filmStorage;
+    private final ResourceVersions versions;
+    private final AtomicInteger lastId = new AtomicInteger();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private UserRow[] rows = new UserRow[1024];
+
+    public InMemoryUserStorage(ObjectProvider<InMemoryFilmStorage> filmStorage, ResourceVersions versions) {
+        this.filmStorage = filmStorage;
+        this.versions = versions;
+    }
+
+    @Override
+    public User addUser(User user) {
+        int id = lastId.incrementAndGet();
+        User newUser = copy(user, id);
+        lock.writeLock().lock();
+        try {
+            if (id >= rows.length) {
+                rows = Arrays.copyOf(rows, Math.max(id + 1, rows.length * 2));
+            }
+            rows[id] = new UserRow(newUser);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        versions.userChanged(id);
+        log.info("User added. user{}.", newUser);
+        return copy(newUser, id);
+    }
+
+    @Override
+    public List<Integer> addUsers(List<User> users) {
+        List<Integer> ids = new ArrayList<>(users.size());
+        users.forEach(user -> ids.add(addUser(user).getId()));
+        return ids;
+    }
+
+    @Override
+    public void deleteUser(Integer id) {
+        UserRow row;
+        lock.writeLock().lock();
+        try {
+            row = find(id);
+            if (row == null) {
+                throw new NotFoundException(String.format("No such user with this id:%s.", id));
+            }
+            rows[id] = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (int friendId : snapshot(row.friends)) {
+            UserRow friend = row(friendId);
+            if (friend != null) {
+                synchronized (friend.followers) {
+                    friend.followers.remove(id);
+                }
+            }
+        }
+        for (int followerId : snapshot(row.followers)) {
+            UserRow follower = row(followerId);
+            if (follower != null) {
+                synchronized (follower.friends) {
+                    follower.friends.remove(id);
+                }
+            }
+        }
+        filmStorage.getObject().removeLikesOfUser(id, snapshot(row.likedFilms));
+        versions.userChanged(id);
+        log.info("User deleted. user id={}.", id);
+    }
+
+    @Override
+    public User getUserById(Integer id) {
+        UserRow row = getRow(id);
+        return copy(row.user, id);
+    }
+
+    @Override
+    public User updateUser(User user) {
+        UserRow row = getRow(user.getId());
+        row.user = copy(user, user.getId());
+        versions.userChanged(user.getId());
+        log.info("User updated. User{}.", row.user);
+        return copy(row.user, user.getId());
+    }
+
+    @Override
+    public Collection<User> getAllUsers() {
+        return getUsers(0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<User> getUsers(Integer after, int limit) {
+        return getUsers(after, limit, UserField.ALL);
+    }
+
+    @Override
+    public List<User> getUsers(Integer after, int limit, Set<UserField> fields) {
+        List<User> users = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int id = after == null ? 1 : Math.max(1, after + 1); id < rows.length && users.size() < limit; id++) {
+                if (rows[id] != null) {
+                    users.add(copy(rows[id].user, id, fields));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        log.info("Get users after id={}. Count of users {}.", after, users.size());
+        return users;
+    }
+
+    @Override
+    public void exportUsers(Consumer<User> consumer) {
+        int id = 0;
+        List<User> page;
+        do {
+            page = getUsers(id, 1000);
+            for (User user : page) {
+                UserRow row = row(user.getId());
+                if (row != null) {
+                    user.setFriends(new LinkedHashSet<>());
+                    Arrays.stream(snapshot(row.friends)).forEach(user.getFriends()::add);
+                }
+                consumer.accept(user);
+                id = user.getId();
+            }
+        } while (!page.isEmpty());
+    }
+
+    @Override
+    public void checkUserExist(Integer id) {
+        getRow(id);
+    }
+
+    @Override
+    public void addFriend(Integer id, Integer friendId) {
+        UserRow user = row(id);
+        UserRow friend = row(friendId);
+        if (user == null || friend == null) {
+            throw new NotFoundException(String.format("No such user with id:%s or id:%s.", id, friendId));
+        }
+        boolean added;
+        synchronized (user.friends) {
+            added = user.friends.add(friendId);
+        }
+        if (!added) {
+            throw new DuplicateKeyException(String.format("User%s already has a friend%s.", id, friendId));
+        }
+        synchronized (friend.followers) {
+            friend.followers.add(id);
+        }
+        versions.userChanged(id);
+        log.info("User{} added a friend{}.", id, friendId);
+    }
+
+    @Override
+    public Collection<User> getFriends(Integer id) {
+        return getFriends(id, UserField.ALL);
+    }
+
+    @Override
+    public Collection<User> getFriends(Integer id, Set<UserField> fields) {
+        UserRow row = getRow(id);
+        List<User> friends = new ArrayList<>();
+        for (int friendId : snapshot(row.friends)) {
+            UserRow friend = row(friendId);
+            if (friend != null) {
+                friends.add(copy(friend.user, friendId, fields));
+            }
+        }
+        log.info("User{} get list of friends", id);
+        return friends;
+    }
+
+    @Override
+    public int[] getFriendIds(Integer id) {
+        UserRow row = row(id);
+        return row == null ? new int[0] : snapshot(row.friends);
+    }
+
+    @Override
+    public int[] getFollowerIds(Integer id) {
+        UserRow row = row(id);
+        return row == null ? new int[0] : snapshot(row.followers);
+    }
+
+    @Override
+    public List<User> getUsersByIds(List<Integer> ids) {
+        List<User> users = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            UserRow row = row(id);
+            if (row != null) {
+                users.add(copy(row.user, id));
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public void deleteFriend(Integer id, Integer friendId) {
+        UserRow user = getRow(id);
+        UserRow friend = getRow(friendId);
+        synchronized (user.friends) {
+            user.friends.remove(friendId);
+        }
+        synchronized (friend.followers) {
+            friend.followers.remove(id);
+        }
+        versions.userChanged(id);
+        log.info("User{} deleted a friend{}.", id, friendId);
+    }
+
+    @Override
+    public int[] addFriends(List<Friendship> friendships) {
+        int[] counts = new int[friendships.size()];
+        for (int i = 0; i < friendships.size(); i++) {
+            Friendship friendship = friendships.get(i);
+            try {
+                addFriend(friendship.getUserId(), friendship.getFriendId());
+                counts[i] = 1;
+            } catch (NotFoundException | DuplicateKeyException e) {
+                counts[i] = 0;
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public Collection<User> getCommonFriends(Integer id, Integer otherId) {
+        UserRow user = getRow(id);
+        UserRow other = getRow(otherId);
+        int[] friends = snapshot(user.friends);
+        int[] otherFriends = snapshot(other.friends);
+        List<User> commonFriends = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < friends.length && j < otherFriends.length) {
+            if (friends[i] < otherFriends[j]) {
+                i++;
+            } else if (friends[i] > otherFriends[j]) {
+                j++;
+            } else {
+                UserRow friend = row(friends[i]);
+                if (friend != null) {
+                    commonFriends.add(copy(friend.user, friends[i]));
+                }
+                i++;
+                j++;
+            }
+        }
+        log.info("Count of same friends of user{} with user{}: {}.", id, otherId, commonFriends.size());
+        return commonFriends;
+    }
+
+    public int[] getLikedFilmIds(int userId) {
+        UserRow row = row(userId);
+        return row == null ? new int[0] : snapshot(row.likedFilms);
+    }
+
+    public boolean likeFilm(int userId, int filmId) {
+        UserRow row = row(userId);
+        if (row == null) {
+            return false;
+        }
+        synchronized (row.likedFilms) {
+            row.likedFilms.add(filmId);
+        }
+        return true;
+    }
+
+    public void unlikeFilm(int userId, int filmId) {
+        UserRow row = row(userId);
+        if (row != null) {
+            synchronized (row.likedFilms) {
+                row.likedFilms.remove(filmId);
+            }
+        }
+    }
+
+    private UserRow getRow(Integer id) {
+        UserRow row = row(id);
+        if (row == null) {
+            throw new NotFoundException(String.format("No such user with this id:%s.", id));
+        }
+        return row;
+    }
+
+    private UserRow row(Integer id) {
+        lock.readLock().lock();
+        try {
+            return find(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private UserRow find(Integer id) {
+        return id == null || id <= 0 || id >= rows.length ? null : rows[id];
+    }
+
+    private static int[] snapshot(IntHashSet set) {
+        synchronized (set) {
+            return set.toSortedArray();
+        }
+    }
+
+    private static User copy(User user, Integer id) {
+        return copy(user, id, UserField.ALL);
+    }
+
+    private static User copy(User user, Integer id, Set<UserField> fields) {
+        return User.builder()
+                .id(id)
+                .email(fields.contains(UserField.EMAIL) ? user.getEmail() : null)
+                .login(fields.contains(UserField.LOGIN) ? user.getLogin() : null)
+                .name(fields.contains(UserField.NAME) ? user.getName() : null)
+                .birthday(fields.contains(UserField.BIRTHDAY) ? user.getBirthday() : null)
+                .build();
+    }
+
+    private static class UserRow {
+        private volatile User user;
+        private final IntHashSet friends = new IntHashSet();
+        private final IntHashSet followers = new IntHashSet();
+        private final IntHashSet likedFilms = new IntHashSet();
+
+        UserRow(User user) {
+            this.user = user;
+        }
+    }
+}
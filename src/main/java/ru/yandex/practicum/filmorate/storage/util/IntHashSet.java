@@ -0,0 +1,122 @@
+package ru.yandex.practicum.filmorate.storage.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Open addressing set of positive ints without boxing. Zero marks a free slot, so only ids greater
+ * than zero can be stored. Not thread safe: callers synchronize on the set.
+ */
+public class IntHashSet {
+
+    private static final int FREE = 0;
+
+    private int[] slots;
+    private int size;
+
+    public IntHashSet() {
+        slots = new int[4];
+    }
+
+    public boolean add(int value) {
+        if ((size + 1) * 4 > slots.length * 3) {
+            resize(slots.length * 2);
+        }
+        int mask = slots.length - 1;
+        int i = index(value, mask);
+        while (slots[i] != FREE) {
+            if (slots[i] == value) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[i] = value;
+        size++;
+        return true;
+    }
+
+    public boolean remove(int value) {
+        int mask = slots.length - 1;
+        int i = index(value, mask);
+        while (slots[i] != value) {
+            if (slots[i] == FREE) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[i] = FREE;
+        size--;
+        // shift following entries back so that lookups never stop at the freed slot
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (slots[j] == FREE) {
+                break;
+            }
+            int home = index(slots[j], mask);
+            boolean between = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+            if (!between) {
+                slots[i] = slots[j];
+                slots[j] = FREE;
+                i = j;
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(int value) {
+        int mask = slots.length - 1;
+        int i = index(value, mask);
+        while (slots[i] != FREE) {
+            if (slots[i] == value) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(IntConsumer consumer) {
+        for (int value : slots) {
+            if (value != FREE) {
+                consumer.accept(value);
+            }
+        }
+    }
+
+    public int[] toSortedArray() {
+        int[] values = new int[size];
+        int n = 0;
+        for (int value : slots) {
+            if (value != FREE) {
+                values[n++] = value;
+            }
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    private void resize(int capacity) {
+        int[] old = slots;
+        slots = new int[capacity];
+        size = 0;
+        for (int value : old) {
+            if (value != FREE) {
+                add(value);
+            }
+        }
+    }
+
+    private static int index(int value, int mask) {
+        int hash = value * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,126 @@
+package ru.yandex.practicum.filmorate.storage.util;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing map from positive ints to longs without boxing, laid out like {@link IntHashSet}.
+ * Zero marks a free key slot, so only keys greater than zero can be stored. Not thread safe: callers
+ * synchronize on the map.
+ */
+public class IntLongHashMap {
+
+    public static final long MISSING = Long.MIN_VALUE;
+
+    private static final int FREE = 0;
+
+    private int[] keys;
+    private long[] values;
+    private int size;
+
+    public IntLongHashMap() {
+        keys = new int[4];
+        values = new long[4];
+    }
+
+    public boolean putIfAbsent(int key, long value) {
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while (keys[i] != FREE) {
+            if (keys[i] == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes the key and returns its value, or {@link #MISSING} if the key was absent.
+     */
+    public long remove(int key) {
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while (keys[i] != key) {
+            if (keys[i] == FREE) {
+                return MISSING;
+            }
+            i = (i + 1) & mask;
+        }
+        long removed = values[i];
+        keys[i] = FREE;
+        size--;
+        // shift following entries back so that lookups never stop at the freed slot
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == FREE) {
+                break;
+            }
+            int home = index(keys[j], mask);
+            boolean between = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+            if (!between) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                keys[j] = FREE;
+                i = j;
+            }
+        }
+        return removed;
+    }
+
+    public boolean containsKey(int key) {
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while (keys[i] != FREE) {
+            if (keys[i] == key) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int[] toSortedKeys() {
+        int[] sorted = new int[size];
+        int n = 0;
+        for (int key : keys) {
+            if (key != FREE) {
+                sorted[n++] = key;
+            }
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new int[capacity];
+        values = new long[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                putIfAbsent(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int index(int key, int mask) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
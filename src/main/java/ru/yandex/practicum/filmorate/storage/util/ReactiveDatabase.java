@@ -0,0 +1,72 @@
+package ru.yandex.practicum.filmorate.storage.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.AbstractDriverBasedDataSource;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+@Component
+@Slf4j
+@Profile("!memory")
+@ConditionalOnProperty(name = "filmorate.reactive.enabled", havingValue = "true", matchIfMissing = false)
+public class ReactiveDatabase {
+
+    private static final String H2_PREFIX = "jdbc:h2:";
+
+    private final ConnectionPool pool;
+    private final DatabaseClient client;
+
+    public ReactiveDatabase(DataSource dataSource,
+                            @Value("${filmorate.reactive.pool-size:8}") int poolSize) throws SQLException {
+        H2ConnectionConfiguration.Builder configuration = H2ConnectionConfiguration.builder();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            if (!metaData.getURL().startsWith(H2_PREFIX)) {
+                throw new IllegalStateException("Reactive storage supports only H2, got " + metaData.getURL());
+            }
+            configuration.url(metaData.getURL().substring(H2_PREFIX.length()))
+                    .username(metaData.getUserName())
+                    .password(password(dataSource));
+        }
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(new H2ConnectionFactory(configuration.build()))
+                .initialSize(1)
+                .maxSize(poolSize)
+                .build());
+        this.client = DatabaseClient.create(pool);
+        log.info("Reactive database opened, pool size {}.", poolSize);
+    }
+
+    public DatabaseClient client() {
+        return client;
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.dispose();
+    }
+
+    private static String password(DataSource dataSource) throws SQLException {
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            return dataSource.unwrap(HikariDataSource.class).getPassword();
+        }
+        if (dataSource.isWrapperFor(AbstractDriverBasedDataSource.class)) {
+            return dataSource.unwrap(AbstractDriverBasedDataSource.class).getPassword();
+        }
+        return "";
+    }
+}
@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.storage.util;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class ResourceVersions {
+
+    private volatile String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong filmCollection = new AtomicLong();
+    private final Map<Integer, Long> films = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> users = new ConcurrentHashMap<>();
+
+    public void filmChanged(int filmId) {
+        long version = sequence.incrementAndGet();
+        films.put(filmId, version);
+        filmCollection.accumulateAndGet(version, Math::max);
+    }
+
+    public void filmsChanged() {
+        filmCollection.accumulateAndGet(sequence.incrementAndGet(), Math::max);
+    }
+
+    public void userChanged(int userId) {
+        users.put(userId, sequence.incrementAndGet());
+    }
+
+    public void allChanged() {
+        epoch = Long.toString(System.currentTimeMillis(), 36) + "." + Long.toString(sequence.incrementAndGet(), 36);
+    }
+
+    public long filmVersion(int filmId) {
+        return films.getOrDefault(filmId, 0L);
+    }
+
+    public String filmTag(int filmId) {
+        return tag("f", filmId, films.getOrDefault(filmId, 0L));
+    }
+
+    public String filmsTag() {
+        return tag("c", filmCollection.get());
+    }
+
+    public String userTag(int userId) {
+        return tag("u", userId, users.getOrDefault(userId, 0L));
+    }
+
+    public String friendsTag(int userId, int[] friendIds) {
+        long hash = users.getOrDefault(userId, 0L);
+        for (int friendId : friendIds) {
+            hash = 31 * hash + friendId;
+            hash = 31 * hash + users.getOrDefault(friendId, 0L);
+        }
+        return tag("r", userId, hash);
+    }
+
+    private String tag(String kind, long version) {
+        return "\"" + epoch + "-" + kind + Long.toHexString(version) + "\"";
+    }
+
+    private String tag(String kind, int id, long version) {
+        return "\"" + epoch + "-" + kind + id + "." + Long.toHexString(version) + "\"";
+    }
+}
@@ -0,0 +1,268 @@
+package ru.yandex.practicum.filmorate.storage.util;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sorted int rows with growable backing arrays. Writers lock only the row they change and insert in
+ * place, appends are amortised O(1). Readers get an exact-length snapshot that is cached until the
+ * next write to the row, so a row is copied once per burst of reads rather than once per write.
+ */
+public class SortedIntAdjacency {
+
+    public static final int[] EMPTY = new int[0];
+
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+    private static final int ROW_BYTES = 32;
+    private static final int MIN_CAPACITY = 4;
+
+    // writers share the read lock, only replace() needs the table to itself
+    private final ReadWriteLock tableLock = new ReentrantReadWriteLock();
+    private volatile AtomicReferenceArray<Row> rows;
+
+    public SortedIntAdjacency() {
+        this(new AtomicReferenceArray<>(0));
+    }
+
+    private SortedIntAdjacency(AtomicReferenceArray<Row> rows) {
+        this.rows = rows;
+    }
+
+    public static Loader loader(int length, String rowColumn, String valueColumn) {
+        return new Loader(length, rowColumn, valueColumn);
+    }
+
+    public void replace(SortedIntAdjacency other) {
+        tableLock.writeLock().lock();
+        try {
+            rows = other.rows;
+        } finally {
+            tableLock.writeLock().unlock();
+        }
+    }
+
+    public int[] get(int row) {
+        Row values = row(row);
+        return values == null ? EMPTY : values.snapshot();
+    }
+
+    public boolean add(int row, int value) {
+        tableLock.readLock().lock();
+        try {
+            return rowForWrite(row).add(value);
+        } finally {
+            tableLock.readLock().unlock();
+        }
+    }
+
+    public boolean remove(int row, int value) {
+        tableLock.readLock().lock();
+        try {
+            Row values = row(row);
+            return values != null && values.remove(value);
+        } finally {
+            tableLock.readLock().unlock();
+        }
+    }
+
+    public int[] clear(int row) {
+        tableLock.readLock().lock();
+        try {
+            Row values = row(row);
+            return values == null ? EMPTY : values.clear();
+        } finally {
+            tableLock.readLock().unlock();
+        }
+    }
+
+    public long edgeCount() {
+        AtomicReferenceArray<Row> table = rows;
+        long count = 0;
+        for (int row = 0; row < table.length(); row++) {
+            Row values = table.get(row);
+            if (values != null) {
+                count += values.size();
+            }
+        }
+        return count;
+    }
+
+    public long memoryBytes() {
+        AtomicReferenceArray<Row> table = rows;
+        long bytes = ARRAY_HEADER_BYTES + (long) REFERENCE_BYTES * table.length();
+        for (int row = 0; row < table.length(); row++) {
+            Row values = table.get(row);
+            if (values != null) {
+                bytes += values.memoryBytes();
+            }
+        }
+        return bytes;
+    }
+
+    public int firstDifference(SortedIntAdjacency other) {
+        int length = Math.max(rows.length(), other.rows.length());
+        for (int row = 0; row < length; row++) {
+            if (!Arrays.equals(get(row), other.get(row))) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private Row row(int row) {
+        AtomicReferenceArray<Row> table = rows;
+        return row < 0 || row >= table.length() ? null : table.get(row);
+    }
+
+    private Row rowForWrite(int row) {
+        Row values = row(row);
+        if (values != null) {
+            return values;
+        }
+        synchronized (this) {
+            AtomicReferenceArray<Row> table = rows;
+            if (row >= table.length()) {
+                AtomicReferenceArray<Row> grown = new AtomicReferenceArray<>(Math.max(row + 1, table.length() * 2));
+                for (int i = 0; i < table.length(); i++) {
+                    grown.set(i, table.get(i));
+                }
+                rows = grown;
+                table = grown;
+            }
+            values = table.get(row);
+            if (values == null) {
+                values = new Row(EMPTY);
+                table.set(row, values);
+            }
+            return values;
+        }
+    }
+
+    private static final class Row {
+
+        private int[] values;
+        private int size;
+        // values itself while the row is exactly full, writers then copy before changing it
+        private volatile int[] snapshot;
+
+        private Row(int[] values) {
+            this.values = values;
+            this.size = values.length;
+            this.snapshot = values;
+        }
+
+        int[] snapshot() {
+            int[] current = snapshot;
+            if (current != null) {
+                return current;
+            }
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = size == values.length ? values : Arrays.copyOf(values, size);
+                }
+                return snapshot;
+            }
+        }
+
+        synchronized boolean add(int value) {
+            int index = size > 0 && values[size - 1] < value ? -size - 1 : Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                return false;
+            }
+            int insertAt = -index - 1;
+            if (size == values.length || snapshot == values) {
+                values = Arrays.copyOf(values, Math.max(MIN_CAPACITY, size + (size >> 1) + 1));
+            }
+            System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+            values[insertAt] = value;
+            size++;
+            snapshot = null;
+            return true;
+        }
+
+        synchronized boolean remove(int value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index < 0) {
+                return false;
+            }
+            if (snapshot == values) {
+                values = values.clone();
+            }
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            snapshot = null;
+            return true;
+        }
+
+        synchronized int[] clear() {
+            int[] removed = snapshot();
+            values = EMPTY;
+            size = 0;
+            snapshot = EMPTY;
+            return removed;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized long memoryBytes() {
+            long bytes = ROW_BYTES;
+            if (values.length > 0) {
+                bytes += ARRAY_HEADER_BYTES + (long) Integer.BYTES * values.length;
+            }
+            int[] current = snapshot;
+            if (current != null && current != values && current.length > 0) {
+                bytes += ARRAY_HEADER_BYTES + (long) Integer.BYTES * current.length;
+            }
+            return bytes;
+        }
+    }
+
+    public static class Loader implements RowCallbackHandler {
+        private final AtomicReferenceArray<Row> table;
+        private final String rowColumn;
+        private final String valueColumn;
+        private int[] buffer = new int[16];
+        private int size;
+        private int current = -1;
+
+        private Loader(int length, String rowColumn, String valueColumn) {
+            this.table = new AtomicReferenceArray<>(length);
+            this.rowColumn = rowColumn;
+            this.valueColumn = valueColumn;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            int row = rs.getInt(rowColumn);
+            if (row != current) {
+                flush();
+                current = row;
+            }
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, size * 2);
+            }
+            buffer[size++] = rs.getInt(valueColumn);
+        }
+
+        public SortedIntAdjacency finish() {
+            flush();
+            return new SortedIntAdjacency(table);
+        }
+
+        private void flush() {
+            if (current >= 0 && current < table.length()) {
+                table.set(current, new Row(Arrays.copyOf(buffer, size)));
+            }
+            size = 0;
+        }
+    }
+}
@@ -29,10 +29,15 @@ CREATE TABLE IF NOT EXISTS USER_FILM
 (
     USER_ID INTEGER NOT NULL REFERENCES USERS (USER_ID) ON DELETE CASCADE,
     FILM_ID INTEGER NOT NULL REFERENCES FILMS (FILM_ID) ON DELETE CASCADE,
+    CREATED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     CONSTRAINT USER_FILM_PK PRIMARY KEY (USER_ID, FILM_ID)
 
 );
 
+ALTER TABLE USER_FILM ADD COLUMN IF NOT EXISTS CREATED_AT TIMESTAMP;
+ALTER TABLE USER_FILM ALTER COLUMN CREATED_AT DROP NOT NULL;
+ALTER TABLE USER_FILM ALTER COLUMN CREATED_AT SET DEFAULT CURRENT_TIMESTAMP;
+
 CREATE TABLE IF NOT EXISTS GENRE
 (
     GENRE_ID INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -0,0 +1,133 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.yandex.practicum.filmorate.controller.reactive.ReactiveServer;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest(properties = "filmorate.reactive.enabled=true")
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BinaryFormatsTest {
+
+    private static final MediaType CBOR = MediaType.valueOf("application/cbor");
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    private final MockMvc mockMvc;
+    private final FilmStorage filmStorage;
+    private final ReactiveServer reactiveServer;
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+    @Test
+    public void contentNegotiationTest() throws Exception {
+        Film film = filmStorage.addFilm(Film.builder()
+                .name("binaryFilm")
+                .description("binaryFilm")
+                .releaseDate(LocalDate.of(2003, 4, 5))
+                .duration(100)
+                .mpa(Mpa.builder().id(2).build())
+                .genres(List.of(Genre.builder().id(4).build()))
+                .build());
+
+        JsonNode cbor = cborMapper.readTree(fetch(get("/films/" + film.getId()).accept(CBOR), CBOR));
+        assertEquals("binaryFilm", cbor.get("name").asText());
+        assertEquals("2003-04-05", cbor.get("releaseDate").asText());
+        assertEquals("PG", cbor.get("mpa").get("name").asText());
+        assertEquals(4, cbor.get("genres").get(0).get("id").asInt());
+
+        JsonNode smile = smileMapper.readTree(fetch(get("/films?limit=1&fields=name&after=" + (film.getId() - 1))
+                .accept(SMILE), SMILE));
+        assertEquals("binaryFilm", smile.get(0).get("name").asText());
+        assertFalse(smile.get(0).has("description"));
+
+        assertEquals(1, cborMapper.readTree(fetch(get("/genres/1").accept(CBOR), CBOR)).get("id").asInt());
+        fetch(get("/films/" + film.getId()), MediaType.APPLICATION_JSON);
+
+        byte[] reactive = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + reactiveServer.port())
+                .build()
+                .get().uri("/films/{id}", film.getId()).accept(SMILE).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(SMILE)
+                .expectBody().returnResult().getResponseBody();
+        assertEquals("binaryFilm", smileMapper.readTree(reactive).get("name").asText());
+    }
+
+    @Test
+    public void representationETagTest() throws Exception {
+        Film film = filmStorage.addFilm(Film.builder()
+                .name("varyFilm")
+                .description("varyFilm")
+                .releaseDate(LocalDate.of(2003, 4, 5))
+                .duration(100)
+                .mpa(Mpa.builder().id(2).build())
+                .build());
+        String url = "/films/" + film.getId();
+
+        MvcResult json = negotiate(get(url).accept(MediaType.APPLICATION_JSON));
+        MvcResult cbor = negotiate(get(url).accept(CBOR));
+        MvcResult smile = negotiate(get(url).accept(SMILE));
+        String jsonTag = json.getResponse().getHeader(HttpHeaders.ETAG);
+        String cborTag = cbor.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(jsonTag, cborTag);
+        assertNotEquals(cborTag, smile.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(jsonTag, negotiate(get(url)).getResponse().getHeader(HttpHeaders.ETAG));
+        for (MvcResult result : List.of(json, cbor, smile)) {
+            assertEquals(List.of(HttpHeaders.ACCEPT), result.getResponse().getHeaders(HttpHeaders.VARY));
+        }
+
+        // a JSON validator must not revalidate a CBOR body
+        assertEquals(200, negotiate(get(url).accept(CBOR).header(HttpHeaders.IF_NONE_MATCH, jsonTag))
+                .getResponse().getStatus());
+        MvcResult notModified = negotiate(get(url).accept(CBOR).header(HttpHeaders.IF_NONE_MATCH, cborTag));
+        assertEquals(304, notModified.getResponse().getStatus());
+        assertEquals(List.of(HttpHeaders.ACCEPT), notModified.getResponse().getHeaders(HttpHeaders.VARY));
+        assertEquals(List.of(HttpHeaders.ACCEPT),
+                negotiate(get("/genres/1").accept(SMILE)).getResponse().getHeaders(HttpHeaders.VARY));
+    }
+
+    private byte[] fetch(MockHttpServletRequestBuilder request, MediaType expected) throws Exception {
+        MvcResult result = negotiate(request);
+        assertEquals(200, result.getResponse().getStatus());
+        assertTrue(expected.isCompatibleWith(MediaType.valueOf(result.getResponse().getContentType())),
+                result.getResponse().getContentType());
+        return result.getResponse().getContentAsByteArray();
+    }
+
+    private MvcResult negotiate(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,102 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.exception.ServiceUnavailableException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "filmorate.bulkhead.lookups.threads=1",
+        "filmorate.bulkhead.lookups.queue-capacity=2",
+        "filmorate.bulkhead.lookups.timeout-ms=60000"
+})
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BulkheadTest {
+
+    private final MockMvc mockMvc;
+    private final Bulkheads bulkheads;
+    private final MeterRegistry registry;
+
+    @Test
+    public void lookupBulkheadTest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        bulkheads.lookup(() -> block(started, release));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        MvcResult queued = mockMvc.perform(get("/genres/1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult queuedAll = mockMvc.perform(get("/genres"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(get("/mpa/1")).andExpect(status().isServiceUnavailable());
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/films/popular")).andReturn()))
+                .andExpect(status().isOk());
+        release.countDown();
+        mockMvc.perform(asyncDispatch(queued)).andExpect(status().isOk());
+        mockMvc.perform(asyncDispatch(queuedAll)).andExpect(status().isOk());
+
+        assertEquals(1, registry.counter(Bulkhead.REJECTED, "bulkhead", "lookups").count());
+        assertEquals(0, registry.counter(Bulkhead.TIMEOUTS, "bulkhead", "lookups").count());
+    }
+
+    @Test
+    public void timeoutTest() throws Exception {
+        MeterRegistry meters = new SimpleMeterRegistry();
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1, 50, meters);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<Boolean> running = bulkhead.submit(() -> block(started, release));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            CompletableFuture<Boolean> waiting = bulkhead.submit(() -> true);
+
+            // the worker stays blocked on the latch, so both requests can only finish by timing out
+            assertTimedOut(running);
+            assertTimedOut(waiting);
+            assertEquals(2, meters.counter(Bulkhead.TIMEOUTS, "bulkhead", "test").count());
+        } finally {
+            release.countDown();
+            bulkhead.shutdown();
+        }
+    }
+
+    private static void assertTimedOut(CompletableFuture<Boolean> future) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(ServiceUnavailableException.class, e.getCause());
+    }
+
+    private static Boolean block(CountDownLatch started, CountDownLatch release) {
+        started.countDown();
+        try {
+            return release.await(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
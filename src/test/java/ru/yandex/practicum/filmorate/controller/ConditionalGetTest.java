@@ -0,0 +1,115 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.metrics.RequestMetricsFilter;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ConditionalGetTest {
+
+    private final MockMvc mockMvc;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+
+    @Test
+    public void filmETagTest() throws Exception {
+        Film film = filmStorage.addFilm(Film.builder()
+                .name("etagFilm")
+                .description("etagFilm")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(120)
+                .mpa(Mpa.builder().id(1).build())
+                .build());
+        User user = userStorage.addUser(createUser("etag"));
+        String url = "/films/" + film.getId();
+
+        String etag = fetchETag(url);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(RequestMetricsFilter.STATEMENTS_HEADER, "0"))
+                .andExpect(content().string(""));
+
+        String popular = fetchETag("/films/popular");
+        filmStorage.addLike(film.getId(), user.getId());
+        mockMvc.perform(get("/films/popular").header(HttpHeaders.IF_NONE_MATCH, popular))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        film.setName("etagFilmUpdated");
+        filmStorage.updateFilm(film);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        assertNotEquals(etag, fetchETag(url));
+    }
+
+    @Test
+    public void friendsETagTest() throws Exception {
+        User user = userStorage.addUser(createUser("etagUser"));
+        User friend = userStorage.addUser(createUser("etagFriend"));
+        String url = "/users/" + user.getId() + "/friends";
+
+        String empty = fetchETag(url);
+        userStorage.addFriend(user.getId(), friend.getId());
+        String etag = fetchETag(url);
+        assertNotEquals(empty, etag);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(RequestMetricsFilter.STATEMENTS_HEADER, "0"));
+
+        friend.setName("renamed");
+        userStorage.updateUser(friend);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void untouchedResourcesETagTest() throws Exception {
+        User first = userStorage.addUser(createUser("etagFirst"));
+        User second = userStorage.addUser(createUser("etagSecond"));
+
+        assertNotEquals(fetchETag("/users/" + first.getId()), fetchETag("/users/" + second.getId()));
+        assertNotEquals(fetchETag("/users/" + first.getId() + "/friends"),
+                fetchETag("/users/" + second.getId() + "/friends"));
+    }
+
+    private String fetchETag(String url) throws Exception {
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+
+    private User createUser(String login) {
+        return User.builder()
+                .email(login + "@mail.ru")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1980, 12, 12))
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.service.film.FilmService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class DictionariesEndpointTest {
+
+    private final MockMvc mockMvc;
+    private final JdbcTemplate jdbcTemplate;
+    private final GenreStorage genreStorage;
+    private final MpaStorage mpaStorage;
+    private final FilmStorage filmStorage;
+    private final FilmService filmService;
+
+    private String genreName;
+
+    @AfterEach
+    public void restore() {
+        if (genreName != null) {
+            jdbcTemplate.update("UPDATE GENRE SET GENRE_NAME = ? WHERE GENRE_ID = 5", genreName);
+        }
+        jdbcTemplate.update("UPDATE RATING SET RATING_NAME = 'NC-17' WHERE RATING_ID = 5");
+        genreStorage.refresh();
+        mpaStorage.refresh();
+    }
+
+    @Test
+    public void refreshTest() throws Exception {
+        Film film = filmStorage.addFilm(Film.builder()
+                .name("dictionaryFilm")
+                .description("dictionaryFilm")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(90)
+                .mpa(Mpa.builder().id(5).build())
+                .genres(List.of(Genre.builder().id(5).build()))
+                .build());
+        genreName = genreStorage.getGenre(5).getName();
+        assertEquals(genreName, filmService.getFilmById(film.getId()).getGenres().get(0).getName());
+
+        jdbcTemplate.update("UPDATE GENRE SET GENRE_NAME = 'Documentary' WHERE GENRE_ID = 5");
+        jdbcTemplate.update("UPDATE RATING SET RATING_NAME = 'X' WHERE RATING_ID = 5");
+        assertEquals(genreName, genreStorage.getGenre(5).getName());
+
+        mockMvc.perform(post("/actuator/dictionaries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.genres").value(6))
+                .andExpect(jsonPath("$.mpa").value(5));
+
+        assertEquals("Documentary", genreStorage.getGenre(5).getName());
+        assertEquals("X", mpaStorage.getMpa(5).getName());
+        Film cached = filmService.getFilmById(film.getId());
+        assertEquals("Documentary", cached.getGenres().get(0).getName());
+        assertEquals("X", cached.getMpa().getName());
+    }
+}
@@ -0,0 +1,177 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.SqlBudgetExceededException;
+import ru.yandex.practicum.filmorate.metrics.SqlStatementMetrics;
+import ru.yandex.practicum.filmorate.metrics.SqlStatementScope;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FilmDbStorageQueryCountTest {
+
+    private final FilmStorage filmDbStorage;
+    private final UserStorage userDbStorage;
+    private final SqlStatementMetrics sqlStatementMetrics;
+
+    private User user;
+    private final List<Integer> filmIds = new ArrayList<>();
+
+    @BeforeEach
+    public void addFilms() {
+        user = userDbStorage.addUser(createUser());
+        for (int i = 0; i < 5; i++) {
+            Film film = filmDbStorage.addFilm(createFilm(i));
+            filmDbStorage.addLike(film.getId(), user.getId());
+            filmIds.add(film.getId());
+        }
+    }
+
+    @Test
+    public void getAllFilmsQueryCountTest() {
+        Collection<Film> films = expectStatements(1, filmDbStorage::getAllFilms);
+
+        assertTrue(films.size() >= 5);
+        assertTrue(films.stream().filter(film -> film.getName().startsWith("film"))
+                .allMatch(film -> film.getGenres().size() == 2));
+    }
+
+    @Test
+    public void getPopularQueryCountTest() {
+        Collection<Film> films = expectStatements(1, () -> filmDbStorage.getPopular(5));
+
+        assertEquals(5, films.size());
+        assertTrue(films.stream().filter(film -> film.getName().startsWith("film"))
+                .allMatch(film -> film.getGenres().size() == 2));
+    }
+
+    @Test
+    public void getFilmByIdQueryCountTest() {
+        Integer id = filmIds.get(0);
+
+        Film film = expectStatements(1, () -> filmDbStorage.getFilmById(id));
+
+        assertEquals(List.of(1, 2), List.of(film.getGenres().get(0).getId(), film.getGenres().get(1).getId()));
+    }
+
+    @Test
+    public void filmWritesQueryCountTest() {
+        User fan = userDbStorage.addUser(createUser());
+
+        Film film = expectStatements(2, () -> filmDbStorage.addFilm(createFilm(10)));
+        expectStatements(3, () -> filmDbStorage.updateFilm(film));
+        expectStatements(2, () -> {
+            filmDbStorage.addLike(film.getId(), fan.getId());
+            filmDbStorage.deleteLike(film.getId(), fan.getId());
+            return null;
+        });
+        expectStatements(1, () -> {
+            filmDbStorage.deleteFilm(film.getId());
+            return null;
+        });
+
+        assertThrows(NotFoundException.class, () -> filmDbStorage.getFilmById(film.getId()));
+        assertThrows(NotFoundException.class, () -> filmDbStorage.deleteFilm(film.getId()));
+        assertThrows(NotFoundException.class, () -> filmDbStorage.updateFilm(film));
+        assertThrows(NotFoundException.class, () -> filmDbStorage.addLike(film.getId(), fan.getId()));
+        assertThrows(NotFoundException.class, () -> filmDbStorage.deleteLike(film.getId(), fan.getId()));
+    }
+
+    @Test
+    public void userQueryCountTest() {
+        User friend = expectStatements(3, () -> {
+            User newUser = userDbStorage.addUser(createUser());
+            userDbStorage.getUserById(newUser.getId());
+            return userDbStorage.updateUser(newUser);
+        });
+        expectStatements(4, () -> {
+            userDbStorage.addFriend(user.getId(), friend.getId());
+            userDbStorage.getFriends(user.getId());
+            assertEquals(1, userDbStorage.getCommonFriends(user.getId(), user.getId()).size());
+            userDbStorage.deleteFriend(user.getId(), friend.getId());
+            return null;
+        });
+
+        assertThrows(NotFoundException.class, () -> userDbStorage.getFriends(-1));
+        assertThrows(NotFoundException.class, () -> userDbStorage.addFriend(user.getId(), -1));
+        assertThrows(NotFoundException.class, () -> userDbStorage.deleteFriend(user.getId(), -1));
+        assertThrows(NotFoundException.class, () -> userDbStorage.getCommonFriends(user.getId(), -1));
+    }
+
+    @Test
+    public void repeatedStatementBudgetTest() {
+        Integer id = filmIds.get(0);
+
+        try (SqlStatementScope scope = sqlStatementMetrics.open("getFilmById", 0, 2, false)) {
+            for (int i = 0; i < 3; i++) {
+                filmDbStorage.getFilmById(id);
+            }
+            assertEquals(3, scope.repeats());
+            assertNotNull(scope.violation());
+        }
+
+        assertThrows(SqlBudgetExceededException.class, () -> {
+            try (SqlStatementScope scope = sqlStatementMetrics.open("getPopular", 1, 0, true)) {
+                filmDbStorage.getPopular(5);
+                filmDbStorage.getPopular(5);
+            }
+        });
+
+        // request scopes use the configured budget, which the test profile makes fatal
+        assertThrows(SqlBudgetExceededException.class, () -> {
+            try (SqlStatementScope scope = sqlStatementMetrics.open("GET /films/" + id)) {
+                for (int i = 0; i < 4; i++) {
+                    filmDbStorage.getFilmById(id);
+                }
+            }
+        });
+    }
+
+    private <T> T expectStatements(int statements, Supplier<T> operation) {
+        try (SqlStatementScope scope = sqlStatementMetrics.open("expectStatements", statements, 0, true)) {
+            T result = operation.get();
+            assertEquals(statements, scope.count());
+            return result;
+        }
+    }
+
+    private Film createFilm(int i) {
+        return Film.builder()
+                .name("film" + i)
+                .description("film" + i)
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(Mpa.builder().id(1).build())
+                .genres(List.of(Genre.builder().id(2).build(), Genre.builder().id(1).build()))
+                .build();
+    }
+
+    private User createUser() {
+        return User.builder()
+                .email("count@mail.ru")
+                .login("Count")
+                .name("Count")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+}
@@ -5,12 +5,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
-import ru.yandex.practicum.filmorate.model.Film;
-import ru.yandex.practicum.filmorate.model.Mpa;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.Likes;
 import ru.yandex.practicum.filmorate.model.User;
-import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
-import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.storage.film.TrendingCounters;
+import ru.yandex.practicum.filmorate.storage.film.dao.FilmTextIndex;
+import ru.yandex.practicum.filmorate.storage.film.dao.LikeMatrix;
+import ru.yandex.practicum.filmorate.storage.film.dao.LikesLeaderboard;
+import ru.yandex.practicum.filmorate.storage.film.dao.TrendingLoader;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -20,96 +24,81 @@ import static org.junit.jupiter.api.Assertions.*;
 @SpringBootTest
 @AutoConfigureTestDatabase
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
-class FilmDbStorageTest {
+class FilmDbStorageTest extends FilmStorageTest {
 
-    private final FilmStorage filmDbStorage;
-    private final UserStorage userDbStorage;
+    private static final String LEGACY_LIKE = "INSERT INTO USER_FILM (USER_ID, FILM_ID, CREATED_AT) VALUES (?, ?, NULL)";
 
-    @Test
-    public void addFilmTest() {
-
-        Film newFilm = createDefaultFilm();
-        Film film = filmDbStorage.addFilm(newFilm);
-
-        newFilm.setId(film.getId());
-
-        compare(newFilm, film);
-    }
+    private final LikesLeaderboard leaderboard;
+    private final LikeMatrix likeMatrix;
+    private final FilmTextIndex textIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final TrendingCounters trending;
+    private final TrendingLoader trendingLoader;
 
     @Test
-    public void updateFilmTest() {
-
-        Film newFilm = createDefaultFilm();
-        Film film = filmDbStorage.addFilm(newFilm);
-
-        film.setName("NewFilm");
-        film.setDescription("NewDescr");
-        film.setReleaseDate(LocalDate.of(2001, 1, 1));
-        film.setDuration(111);
-        filmDbStorage.updateFilm(film);
-
-        Film savedFilm = filmDbStorage.getFilmById(film.getId());
-
-        compare(film, savedFilm);
+    public void likeTimestampsTest() {
+
+        List<Integer> films = filmStorage.addFilms(List.of(createDefaultFilm(), createDefaultFilm()));
+        User user = userStorage.addUser(User.builder().email("stamp@mail.ru").login("Stamp").name("Stamp").birthday(LocalDate.of(1980, 12, 12)).build());
+        User legacy = userStorage.addUser(User.builder().email("legacy@mail.ru").login("Legacy").name("Legacy").birthday(LocalDate.of(1980, 12, 12)).build());
+        filmStorage.addLike(films.get(0), user.getId());
+        // likes stored before CREATED_AT was added keep NULL and never count as trending
+        jdbcTemplate.update(LEGACY_LIKE, legacy.getId(), films.get(1));
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(CREATED_AT) FROM USER_FILM WHERE FILM_ID IN (?, ?)",
+                Integer.class, films.get(0), films.get(1)));
+        rebuildIndexes();
+        assertEquals(1, leaderboard.getLikes(films.get(1)));
+        assertTrue(trending.top(1000, Duration.ofDays(1)).contains(films.get(0)));
+        assertFalse(trending.top(1000, Duration.ofDays(1)).contains(films.get(1)));
+
+        filmStorage.deleteLike(films.get(1), legacy.getId());
+        jdbcTemplate.update(LEGACY_LIKE, legacy.getId(), films.get(1));
+        rebuildIndexes();
+        Likes like = new Likes();
+        like.setUserId(legacy.getId());
+        like.setFilmId(films.get(1));
+        assertArrayEquals(new int[]{1}, filmStorage.deleteLikes(List.of(like)));
+        jdbcTemplate.update(LEGACY_LIKE, legacy.getId(), films.get(0));
+        rebuildIndexes();
+        userStorage.deleteUser(legacy.getId());
+        assertEquals(0, leaderboard.getLikes(films.get(1)));
+        assertEquals(1, leaderboard.getLikes(films.get(0)));
+        assertTrue(trending.top(1000, Duration.ofDays(1)).contains(films.get(0)));
     }
 
-    @Test
-    public void addLikeTest() {
-
-        User user = userDbStorage.addUser(User.builder().email("user@mail.ru").login("User").name("User").birthday(LocalDate.of(1980, 12, 12)).build());
-
-
-        Film newFilm = filmDbStorage.addFilm(createDefaultFilm());
-
-        filmDbStorage.addLike(newFilm.getId(), user.getId());
-
-        List<Film> likes = new ArrayList<>(filmDbStorage.getPopular(10));
-
-        assertTrue(likes.contains(newFilm));
-
+    @Override
+    protected List<Integer> expectedPopular(Integer genreId, Integer year) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT F.FILM_ID FROM FILMS AS F JOIN USER_FILM AS UF ON UF.FILM_ID = F.FILM_ID WHERE 1=1 ";
+        if (genreId != null) {
+            sql += "AND EXISTS (SELECT 1 FROM FILM_GENRE AS FG WHERE FG.FILM_ID = F.FILM_ID AND FG.GENRE_ID = ?) ";
+            args.add(genreId);
+        }
+        if (year != null) {
+            sql += "AND EXTRACT(YEAR FROM F.RELEASE_DATE) = ? ";
+            args.add(year);
+        }
+        sql += "GROUP BY F.FILM_ID ORDER BY COUNT(*) DESC, F.FILM_ID LIMIT 1000;";
+        return jdbcTemplate.queryForList(sql, Integer.class, args.toArray());
     }
 
-    @Test
-    public void deleteLikeTest() {
-
-        User user = userDbStorage.addUser(User.builder().email("user2@mail.ru").login("User2").name("User2").birthday(LocalDate.of(1980, 12, 12)).build());
-
-
-        Film newFilm = filmDbStorage.addFilm(createDefaultFilm());
-
-        filmDbStorage.addLike(newFilm.getId(), user.getId());
-
-        List<Film> likes = new ArrayList<>(filmDbStorage.getPopular(10));
-
-        assertTrue(likes.contains(newFilm));
-
-        filmDbStorage.deleteLike(newFilm.getId(), user.getId());
-
-        likes = new ArrayList<>(filmDbStorage.getPopular(10));
-
-        assertFalse(likes.contains(newFilm));
+    @Override
+    protected int likes(Integer filmId) {
+        return leaderboard.getLikes(filmId);
     }
 
-    private Film createDefaultFilm() {
-        return Film.builder()
-                .name("testFilm")
-                .description("testFilm")
-                .releaseDate(LocalDate.of(2000, 1, 1))
-                .duration(120).mpa(Mpa.builder()
-                        .id(1)
-                        .build())
-                .build();
+    @Override
+    protected void assertIndexesConsistent() {
+        assertTrue(leaderboard.isConsistent());
+        assertTrue(likeMatrix.isConsistent());
     }
 
-    private void compare(Film film1, Film film2) {
-        assertNotNull(film1);
-        assertNotNull(film2);
-        assertEquals(film1.getId(), film2.getId());
-        assertEquals(film1.getName(), film2.getName());
-        assertEquals(film1.getDescription(), film2.getDescription());
-        assertEquals(film1.getDuration(), film2.getDuration());
-        assertEquals(film1.getReleaseDate(), film2.getReleaseDate());
-        assertEquals(1, film1.getMpa().getId());
-        assertEquals(1, film2.getMpa().getId());
+    @Override
+    protected void rebuildIndexes() {
+        leaderboard.rebuild();
+        likeMatrix.rebuild();
+        textIndex.rebuild();
+        trendingLoader.rebuild();
     }
-}
\ No newline at end of file
+}
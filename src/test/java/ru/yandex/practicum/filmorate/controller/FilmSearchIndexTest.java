@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.LikeRanking;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FilmSearchIndexTest {
+
+    private static final int FILMS = 70_000;
+    private static final double LIKE_BOOST = 0.2;
+
+    @Test
+    public void commonTermsTest() {
+        FilmSearchIndex index = new FilmSearchIndex(LIKE_BOOST);
+        LikeRanking ranking = new LikeRanking();
+        for (int filmId = 1; filmId <= FILMS; filmId++) {
+            index.put(filmId, "film" + filmId + (filmId % 7 == 0 ? " alpha" : "") + (filmId % 5 == 0 ? " omega" : ""),
+                    "alpha" + (filmId % 2 == 0 ? " omega" : ""));
+            if (filmId % 3 == 0) {
+                ranking.set(filmId, filmId * 7919 % 500 + 1);
+            }
+        }
+
+        // long postings are walked from the most liked film down and alpha is kept as a bitset,
+        // the result must match a full scan
+        for (int limit : new int[]{1, 10, 100, 2_000, FILMS}) {
+            assertEquals(expected(ranking, limit, false), index.search("alpha", limit, ranking));
+            assertEquals(expected(ranking, limit, true), index.search("alpha omega", limit, ranking));
+        }
+
+        for (int filmId = 1; filmId <= FILMS; filmId += 2) {
+            index.remove(filmId);
+            ranking.remove(filmId);
+        }
+        List<Integer> remaining = index.search("alpha", FILMS, ranking);
+        assertEquals(FILMS / 2, remaining.size());
+        assertEquals(List.of(), remaining.stream().filter(filmId -> filmId % 2 != 0).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void likesDuringWalkTest() {
+        LikeRanking ranking = new LikeRanking();
+        for (int filmId = 1; filmId <= 10; filmId++) {
+            ranking.set(filmId, filmId);
+        }
+
+        // a like written from another thread while the walk is in progress must not wait for it
+        List<Integer> visited = new ArrayList<>();
+        ranking.visitByLikes((filmId, likes) -> {
+            if (visited.isEmpty()) {
+                assertDoesNotThrow(() -> CompletableFuture.runAsync(() -> ranking.increment(1)).get(5, TimeUnit.SECONDS));
+            }
+            visited.add(filmId);
+            return true;
+        });
+
+        assertEquals(10, visited.size());
+        assertEquals(2, ranking.getLikes(1));
+        assertEquals(List.of(10, 9), ranking.top(2));
+        assertEquals(10, ranking.maxLikes());
+    }
+
+    private static List<Integer> expected(LikeRanking ranking, int limit, boolean omega) {
+        double alpha = Math.log(2);
+        double omegaWeight = Math.log(1 + (double) FILMS / (FILMS * 3 / 5));
+        return IntStream.rangeClosed(1, FILMS)
+                .filter(filmId -> !omega || filmId % 2 == 0 || filmId % 5 == 0)
+                .boxed()
+                .sorted(Comparator.<Integer>comparingDouble(filmId -> {
+                    double relevance = alpha * (filmId % 7 == 0 ? 2 : 1);
+                    if (omega) {
+                        relevance += omegaWeight * (filmId % 5 == 0 ? 2 : 1);
+                    }
+                    return -relevance * (1 + LIKE_BOOST * Math.log1p(ranking.getLikes(filmId)));
+                }).thenComparing(filmId -> filmId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,469 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.yandex.practicum.filmorate.exception.IncorrectParameterException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmExport;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Likes;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.film.FilmCache;
+import ru.yandex.practicum.filmorate.service.film.FilmService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.LikeIndex;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Behaviour shared by every {@link FilmStorage} implementation. Subclasses pick the profile and may
+ * add checks for the indexes that only their tier maintains.
+ */
+abstract class FilmStorageTest {
+
+    @Autowired
+    protected FilmStorage filmStorage;
+    @Autowired
+    protected UserStorage userStorage;
+    @Autowired
+    protected GenreStorage genreStorage;
+    @Autowired
+    protected MpaStorage mpaStorage;
+    @Autowired
+    protected LikeIndex likeIndex;
+    @Autowired
+    protected FilmService filmService;
+    @Autowired
+    protected FilmCache filmCache;
+
+    @Test
+    public void addFilmTest() {
+
+        Film newFilm = createDefaultFilm();
+        Film film = filmStorage.addFilm(newFilm);
+
+        newFilm.setId(film.getId());
+
+        compare(newFilm, film);
+    }
+
+    @Test
+    public void updateFilmTest() {
+
+        Film newFilm = createDefaultFilm();
+        Film film = filmStorage.addFilm(newFilm);
+
+        film.setName("NewFilm");
+        film.setDescription("NewDescr");
+        film.setReleaseDate(LocalDate.of(2001, 1, 1));
+        film.setDuration(111);
+        filmStorage.updateFilm(film);
+
+        Film savedFilm = filmStorage.getFilmById(film.getId());
+
+        compare(film, savedFilm);
+    }
+
+    @Test
+    public void addLikeTest() {
+
+        User user = userStorage.addUser(User.builder().email("user@mail.ru").login("User").name("User").birthday(LocalDate.of(1980, 12, 12)).build());
+
+
+        Film newFilm = filmStorage.addFilm(createDefaultFilm());
+
+        filmStorage.addLike(newFilm.getId(), user.getId());
+
+        List<Film> likes = new ArrayList<>(filmStorage.getPopular(10));
+
+        assertTrue(likes.contains(newFilm));
+
+    }
+
+    @Test
+    public void deleteLikeTest() {
+
+        User user = userStorage.addUser(User.builder().email("user2@mail.ru").login("User2").name("User2").birthday(LocalDate.of(1980, 12, 12)).build());
+
+
+        Film newFilm = filmStorage.addFilm(createDefaultFilm());
+
+        filmStorage.addLike(newFilm.getId(), user.getId());
+
+        List<Film> likes = new ArrayList<>(filmStorage.getPopular(10));
+
+        assertTrue(likes.contains(newFilm));
+
+        filmStorage.deleteLike(newFilm.getId(), user.getId());
+
+        likes = new ArrayList<>(filmStorage.getPopular(10));
+
+        assertFalse(likes.contains(newFilm));
+    }
+
+    @Test
+    public void popularLeaderboardTest() {
+
+        User user1 = userStorage.addUser(User.builder().email("top1@mail.ru").login("Top1").name("Top1").birthday(LocalDate.of(1980, 12, 12)).build());
+        User user2 = userStorage.addUser(User.builder().email("top2@mail.ru").login("Top2").name("Top2").birthday(LocalDate.of(1980, 12, 12)).build());
+
+        Film film1 = filmStorage.addFilm(createDefaultFilm());
+        Film film2 = filmStorage.addFilm(createDefaultFilm());
+
+        for (int i = 0; i < 100; i++) {
+            filmStorage.addLike(film2.getId(), userStorage.addUser(User.builder().email("fan@mail.ru").login("Fan").name("Fan").birthday(LocalDate.of(1980, 12, 12)).build()).getId());
+        }
+        filmStorage.addLike(film1.getId(), user1.getId());
+        filmStorage.addLike(film2.getId(), user1.getId());
+        filmStorage.addLike(film2.getId(), user2.getId());
+
+        assertEquals(film2.getId(), filmStorage.getPopular(1).iterator().next().getId());
+        assertEquals(102, likes(film2.getId()));
+        assertIndexesConsistent();
+
+        userStorage.deleteUser(user1.getId());
+        filmStorage.deleteLike(film2.getId(), user2.getId());
+
+        assertEquals(0, likes(film1.getId()));
+        assertEquals(100, likes(film2.getId()));
+        assertFalse(filmStorage.getPopular(1000).contains(filmStorage.getFilmById(film1.getId())));
+        assertIndexesConsistent();
+
+        filmStorage.deleteFilm(film2.getId());
+
+        assertEquals(0, likes(film2.getId()));
+        assertIndexesConsistent();
+    }
+
+    @Test
+    public void getFilmsPageTest() {
+
+        Film film1 = filmStorage.addFilm(createDefaultFilm());
+        Film film2 = filmStorage.addFilm(createDefaultFilm());
+        Film film3 = filmStorage.addFilm(createDefaultFilm());
+
+        List<Film> page = filmStorage.getFilms(film1.getId(), 1);
+
+        assertEquals(List.of(film2), page);
+
+        page = filmStorage.getFilms(film2.getId(), 10);
+
+        assertEquals(film3, page.get(0));
+        assertTrue(page.stream().allMatch(film -> film.getId() > film2.getId()));
+    }
+
+    @Test
+    public void exportFilmsTest() {
+
+        User user = userStorage.addUser(User.builder().email("export@mail.ru").login("Export").name("Export").birthday(LocalDate.of(1980, 12, 12)).build());
+        Film newFilm = createDefaultFilm();
+        newFilm.setGenres(List.of(Genre.builder().id(3).build(), Genre.builder().id(1).build()));
+        Film film = filmStorage.addFilm(newFilm);
+        filmStorage.addLike(film.getId(), user.getId());
+
+        List<FilmExport> exported = new ArrayList<>();
+        filmStorage.exportFilms(exported::add);
+        FilmExport filmExport = exported.stream()
+                .filter(export -> export.getFilm().getId().equals(film.getId()))
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals(filmStorage.getFilmById(film.getId()), filmExport.getFilm());
+        assertEquals(1, filmExport.getLikes());
+    }
+
+    @Test
+    public void bulkAddFilmsAndLikesTest() {
+
+        User user = userStorage.addUser(User.builder().email("bulk@mail.ru").login("Bulk").name("Bulk").birthday(LocalDate.of(1980, 12, 12)).build());
+        Film withGenres = createDefaultFilm();
+        withGenres.setGenres(List.of(Genre.builder().id(4).build()));
+
+        List<Integer> ids = filmStorage.addFilms(List.of(createDefaultFilm(), withGenres));
+
+        assertEquals(2, ids.size());
+        assertEquals(4, filmStorage.getFilmById(ids.get(1)).getGenres().get(0).getId());
+
+        Likes like = new Likes();
+        like.setUserId(user.getId());
+        like.setFilmId(ids.get(0));
+        Likes unknownUser = new Likes();
+        unknownUser.setUserId(-1);
+        unknownUser.setFilmId(ids.get(0));
+
+        int[] counts = filmStorage.addLikes(List.of(like, unknownUser, like));
+
+        assertArrayEquals(new int[]{1, 0, 0}, counts);
+        assertEquals(1, likes(ids.get(0)));
+        assertIndexesConsistent();
+    }
+
+    @Test
+    public void sharedGenreAndMpaTest() {
+
+        Film newFilm = createDefaultFilm();
+        newFilm.setGenres(List.of(Genre.builder().id(2).build()));
+        Film film = filmStorage.getFilmById(filmStorage.addFilm(newFilm).getId());
+
+        assertSame(genreStorage.getGenre(2), film.getGenres().get(0));
+        assertSame(mpaStorage.getMpa(1), film.getMpa());
+        assertEquals("G", film.getMpa().getName());
+    }
+
+    @Test
+    public void recommendationsTest() {
+
+        List<Integer> films = filmStorage.addFilms(List.of(createDefaultFilm(), createDefaultFilm(),
+                createDefaultFilm(), createDefaultFilm()));
+        User user = userStorage.addUser(User.builder().email("rec1@mail.ru").login("Rec1").name("Rec1").birthday(LocalDate.of(1980, 12, 12)).build());
+        User similar = userStorage.addUser(User.builder().email("rec2@mail.ru").login("Rec2").name("Rec2").birthday(LocalDate.of(1980, 12, 12)).build());
+        User other = userStorage.addUser(User.builder().email("rec3@mail.ru").login("Rec3").name("Rec3").birthday(LocalDate.of(1980, 12, 12)).build());
+
+        filmStorage.addLike(films.get(0), user.getId());
+        filmStorage.addLike(films.get(1), user.getId());
+        filmStorage.addLike(films.get(0), similar.getId());
+        filmStorage.addLike(films.get(1), similar.getId());
+        filmStorage.addLike(films.get(2), similar.getId());
+        filmStorage.addLike(films.get(0), other.getId());
+        filmStorage.addLike(films.get(3), other.getId());
+
+        List<Film> recommended = new ArrayList<>(filmService.getRecommendations(user.getId(), 10));
+
+        assertEquals(2, recommended.size());
+        assertEquals(films.get(2), recommended.get(0).getId());
+        assertEquals(films.get(3), recommended.get(1).getId());
+        assertIndexesConsistent();
+
+        filmStorage.deleteFilm(films.get(2));
+        userStorage.deleteUser(other.getId());
+
+        assertEquals(0, filmService.getRecommendations(user.getId(), 10).size());
+        assertIndexesConsistent();
+    }
+
+    @Test
+    public void filmCacheTest() throws Exception {
+
+        Film film = filmService.addFilm(createDefaultFilm());
+        long loads = filmCache.stats().loadCount();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<Film>> reads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                reads.add(CompletableFuture.supplyAsync(() -> filmService.getFilmById(film.getId()), executor));
+            }
+            for (CompletableFuture<Film> read : reads) {
+                assertEquals("testFilm", read.get().getName());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(loads + 1, filmCache.stats().loadCount());
+
+        film.setName("cachedFilm");
+        film.setGenres(new ArrayList<>(List.of(Genre.builder().id(1).build())));
+        filmService.updateFilm(film);
+
+        assertEquals("cachedFilm", filmService.getFilmById(film.getId()).getName());
+        assertEquals(loads + 2, filmCache.stats().loadCount());
+
+        // callers get copies, so changing one never reaches the cache
+        filmService.getFilmById(film.getId()).setName("mutatedFilm");
+        filmService.getFilmById(film.getId()).getGenres().clear();
+        assertEquals("cachedFilm", filmService.getFilmById(film.getId()).getName());
+        assertEquals(1, filmService.getFilmById(film.getId()).getGenres().size());
+
+        // a write the cache was not told about, like a load that finished after the eviction,
+        // is caught by the version check
+        film.setName("racedFilm");
+        filmStorage.updateFilm(film);
+        assertEquals("racedFilm", filmService.getFilmById(film.getId()).getName());
+        assertEquals("racedFilm", filmService.getFilmsByIds(String.valueOf(film.getId())).getItems().get(0).getName());
+
+        filmService.deleteFilm(film.getId());
+
+        assertThrows(NotFoundException.class, () -> filmService.getFilmById(film.getId()));
+    }
+
+    @Test
+    public void searchFilmsTest() {
+
+        Film matrix = createDefaultFilm();
+        matrix.setName("Zxmatrixq Reloaded");
+        matrix.setDescription("Neo returns to the zxsimulationq");
+        matrix = filmStorage.addFilm(matrix);
+        Film sequel = createDefaultFilm();
+        sequel.setName("Zxmatrixq Revolutions");
+        sequel.setDescription("The war against the machines");
+        sequel = filmStorage.addFilm(sequel);
+        Film other = createDefaultFilm();
+        other.setName("Zxsimulationq");
+        other.setDescription("Another zxmatrixq story");
+        other = filmStorage.addFilm(other);
+
+        assertEquals(List.of(matrix, sequel, other), filmStorage.searchFilms("ZXMATRIXQ", 10));
+        assertEquals(List.of(matrix, sequel, other), filmStorage.searchFilms("zxmatr", 10));
+        assertEquals(List.of(matrix, sequel, other), filmStorage.searchFilms("zxmtarixq", 10));
+        assertEquals(List.of(sequel), filmStorage.searchFilms("zxmatrixq revol", 10));
+        assertEquals(List.of(other, matrix), filmStorage.searchFilms("zxsimulationq", 10));
+        assertTrue(filmStorage.searchFilms("zxmatrixq nothing", 10).isEmpty());
+
+        for (int i = 0; i < 3; i++) {
+            filmStorage.addLike(sequel.getId(), userStorage.addUser(User.builder().email("search@mail.ru").login("Search").name("Search").birthday(LocalDate.of(1980, 12, 12)).build()).getId());
+        }
+        assertEquals(sequel, filmStorage.searchFilms("zxmatrixq", 1).get(0));
+
+        sequel.setName("Zxrenamedq");
+        filmStorage.updateFilm(sequel);
+        filmStorage.deleteFilm(other.getId());
+        rebuildIndexes();
+
+        assertEquals(List.of(matrix), filmStorage.searchFilms("zxmatrixq", 10));
+        assertEquals(List.of(sequel), filmStorage.searchFilms("zxrenamedq", 10));
+        assertThrows(IncorrectParameterException.class, () -> filmService.searchFilms(" ", 10));
+    }
+
+    @Test
+    public void popularByGenreAndYearTest() {
+
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Film film = createDefaultFilm();
+            film.setReleaseDate(LocalDate.of(1990 + i % 3, 1, 1));
+            film.setGenres(List.of(Genre.builder().id(1 + i % 4).build(), Genre.builder().id(1 + i % 6).build()));
+            films.add(filmStorage.addFilm(film));
+        }
+        for (int i = 0; i < 12; i++) {
+            User fan = userStorage.addUser(User.builder().email("facet@mail.ru").login("Facet").name("Facet").birthday(LocalDate.of(1980, 12, 12)).build());
+            for (int j = 0; j <= i % 5; j++) {
+                filmStorage.addLike(films.get((i + j * 5) % films.size()).getId(), fan.getId());
+            }
+        }
+        assertPopularMatchesLikes();
+
+        Film moved = films.get(0);
+        moved.setReleaseDate(LocalDate.of(1992, 6, 1));
+        moved.setGenres(List.of(Genre.builder().id(6).build()));
+        filmStorage.updateFilm(moved);
+        filmStorage.deleteFilm(films.get(1).getId());
+
+        assertPopularMatchesLikes();
+        rebuildIndexes();
+        assertPopularMatchesLikes();
+    }
+
+    @Test
+    public void trendingFilmsTest() {
+
+        List<Integer> films = filmStorage.addFilms(List.of(createDefaultFilm(), createDefaultFilm()));
+        List<Integer> fans = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            fans.add(userStorage.addUser(User.builder().email("trend@mail.ru").login("Trend" + i).name("Trend").birthday(LocalDate.of(1980, 12, 12)).build()).getId());
+        }
+        filmStorage.addLike(films.get(0), fans.get(0));
+        filmStorage.addLike(films.get(1), fans.get(0));
+        filmStorage.addLike(films.get(1), fans.get(1));
+        filmStorage.addLike(films.get(1), fans.get(2));
+
+        assertTrendingOrder(films.get(1), films.get(0));
+
+        filmStorage.deleteLike(films.get(1), fans.get(1));
+        userStorage.deleteUser(fans.get(2));
+        assertTrendingOrder(films.get(0), films.get(1));
+
+        rebuildIndexes();
+        assertTrendingOrder(films.get(0), films.get(1));
+
+        filmStorage.deleteFilm(films.get(0));
+        assertFalse(trendingIds().contains(films.get(0)));
+        assertThrows(IncorrectParameterException.class, () -> filmService.getTrending(10, "30d"));
+        assertThrows(IncorrectParameterException.class, () -> filmService.getTrending(10, "soon"));
+        assertThrows(IncorrectParameterException.class, () -> filmService.getTrending(0, "24h"));
+    }
+
+    private void assertTrendingOrder(Integer first, Integer second) {
+        List<Integer> trending = trendingIds();
+        assertTrue(trending.contains(first));
+        assertTrue(trending.contains(second));
+        assertTrue(trending.indexOf(first) < trending.indexOf(second), trending.toString());
+    }
+
+    private List<Integer> trendingIds() {
+        List<Integer> ids = new ArrayList<>();
+        filmService.getTrending(1000, "24h").forEach(film -> ids.add(film.getId()));
+        return ids;
+    }
+
+    private void assertPopularMatchesLikes() {
+        List<Integer> genreIds = new ArrayList<>(Arrays.asList(null, 1, 2, 3, 4, 5, 6));
+        List<Integer> years = new ArrayList<>(Arrays.asList(null, 1990, 1991, 1992, 2000, 2020));
+        for (Integer genreId : genreIds) {
+            for (Integer year : years) {
+                List<Integer> actual = new ArrayList<>();
+                filmStorage.getPopular(1000, genreId, year).forEach(film -> actual.add(film.getId()));
+                assertEquals(expectedPopular(genreId, year), actual, "genreId=" + genreId + ", year=" + year);
+            }
+        }
+    }
+
+    protected List<Integer> expectedPopular(Integer genreId, Integer year) {
+        return filmStorage.getAllFilms().stream()
+                .filter(film -> likes(film.getId()) > 0)
+                .filter(film -> genreId == null || film.getGenres().stream().anyMatch(genre -> genreId.equals(genre.getId())))
+                .filter(film -> year == null || film.getReleaseDate().getYear() == year)
+                .sorted(Comparator.comparingInt((Film film) -> likes(film.getId())).reversed()
+                        .thenComparing(Film::getId))
+                .limit(1000)
+                .map(Film::getId)
+                .collect(Collectors.toList());
+    }
+
+    protected int likes(Integer filmId) {
+        return likeIndex.getLikers(filmId).length;
+    }
+
+    protected void assertIndexesConsistent() {
+    }
+
+    protected void rebuildIndexes() {
+    }
+
+    protected Film createDefaultFilm() {
+        return Film.builder()
+                .name("testFilm")
+                .description("testFilm")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(120).mpa(Mpa.builder()
+                        .id(1)
+                        .build())
+                .build();
+    }
+
+    private void compare(Film film1, Film film2) {
+        assertNotNull(film1);
+        assertNotNull(film2);
+        assertEquals(film1.getId(), film2.getId());
+        assertEquals(film1.getName(), film2.getName());
+        assertEquals(film1.getDescription(), film2.getDescription());
+        assertEquals(film1.getDuration(), film2.getDuration());
+        assertEquals(film1.getReleaseDate(), film2.getReleaseDate());
+        assertEquals(1, film1.getMpa().getId());
+        assertEquals(1, film2.getMpa().getId());
+    }
+}
\ No newline at end of file
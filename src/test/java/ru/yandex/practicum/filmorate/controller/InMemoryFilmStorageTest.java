@@ -0,0 +1,11 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("memory")
+class InMemoryFilmStorageTest extends FilmStorageTest {
+}
@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.context.ActiveProfiles;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.memory.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.storage.user.memory.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("memory")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class InMemoryStorageTest {
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+
+    @Test
+    public void memoryProfileStorageTest() {
+        assertTrue(filmStorage instanceof InMemoryFilmStorage);
+        assertTrue(userStorage instanceof InMemoryUserStorage);
+    }
+
+    @Test
+    public void filmAndLikesTest() {
+        Film film = filmStorage.addFilm(createFilm(List.of(Genre.builder().id(2).build(), Genre.builder().id(1).build(), Genre.builder().id(2).build())));
+        User user1 = userStorage.addUser(createUser("mem1"));
+        User user2 = userStorage.addUser(createUser("mem2"));
+
+        assertEquals(List.of(1, 2), film.getGenres().stream().map(Genre::getId).collect(Collectors.toList()));
+        assertEquals("G", filmStorage.getFilmById(film.getId()).getMpa().getName());
+
+        filmStorage.addLike(film.getId(), user1.getId());
+        filmStorage.addLike(film.getId(), user2.getId());
+        assertThrows(DuplicateKeyException.class, () -> filmStorage.addLike(film.getId(), user1.getId()));
+        assertThrows(NotFoundException.class, () -> filmStorage.addLike(film.getId(), 9999));
+        assertEquals(film.getId(), new ArrayList<>(filmStorage.getPopular(1)).get(0).getId());
+        assertEquals(film.getId(), new ArrayList<>(filmStorage.getPopular(1, 2, film.getReleaseDate().getYear())).get(0).getId());
+        assertTrue(filmStorage.getPopular(10, 3, null).stream().noneMatch(popular -> popular.getId().equals(film.getId())));
+
+        userStorage.deleteUser(user2.getId());
+        filmStorage.deleteLike(film.getId(), user1.getId());
+        filmStorage.exportFilms(export -> {
+            if (export.getFilm().getId().equals(film.getId())) {
+                assertEquals(0, export.getLikes());
+            }
+        });
+
+        filmStorage.deleteFilm(film.getId());
+        assertThrows(NotFoundException.class, () -> filmStorage.getFilmById(film.getId()));
+    }
+
+    @Test
+    public void friendsTest() {
+        User user1 = userStorage.addUser(createUser("fr1"));
+        User user2 = userStorage.addUser(createUser("fr2"));
+        User common = userStorage.addUser(createUser("fr3"));
+
+        userStorage.addFriend(user1.getId(), common.getId());
+        userStorage.addFriend(user2.getId(), common.getId());
+        userStorage.addFriend(user1.getId(), user2.getId());
+        assertThrows(DuplicateKeyException.class, () -> userStorage.addFriend(user1.getId(), user2.getId()));
+
+        assertEquals(2, userStorage.getFriends(user1.getId()).size());
+        assertEquals(1, userStorage.getFriends(user2.getId()).size());
+        List<User> commonFriends = new ArrayList<>(userStorage.getCommonFriends(user1.getId(), user2.getId()));
+        assertEquals(1, commonFriends.size());
+        assertEquals(common.getId(), commonFriends.get(0).getId());
+
+        userStorage.deleteUser(common.getId());
+        assertEquals(1, userStorage.getFriends(user1.getId()).size());
+        assertEquals(0, userStorage.getFriends(user2.getId()).size());
+    }
+
+    private Film createFilm(List<Genre> genres) {
+        return Film.builder()
+                .name("Memory")
+                .description("Memory film")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(Mpa.builder().id(1).build())
+                .genres(genres)
+                .build();
+    }
+
+    private User createUser(String login) {
+        return User.builder()
+                .email(login + "@mail.ru")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+}
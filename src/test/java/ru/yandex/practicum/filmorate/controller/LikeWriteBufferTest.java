@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.film.FilmService;
+import ru.yandex.practicum.filmorate.storage.film.dao.LikesLeaderboard;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "filmorate.likes.buffer.enabled=true",
+        "filmorate.likes.buffer.durable-ack=true"
+})
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class LikeWriteBufferTest {
+
+    private final FilmService filmService;
+    private final UserStorage userDbStorage;
+    private final LikesLeaderboard leaderboard;
+
+    @Test
+    public void bufferedLikesTest() {
+        User user1 = userDbStorage.addUser(createUser());
+        User user2 = userDbStorage.addUser(createUser());
+        Film film = filmService.addFilm(Film.builder()
+                .name("buffered")
+                .description("buffered")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(90)
+                .mpa(Mpa.builder().id(1).build())
+                .build());
+
+        filmService.addLike(film.getId(), user1.getId());
+        filmService.addLike(film.getId(), user2.getId());
+        filmService.deleteLike(film.getId(), user2.getId());
+        assertThrows(NotFoundException.class, () -> filmService.addLike(film.getId(), -1));
+        assertThrows(NotFoundException.class, () -> filmService.addLike(-1, user1.getId()));
+        filmService.addLike(film.getId(), user1.getId());
+
+        assertEquals(1, leaderboard.getLikes(film.getId()));
+        assertTrue(leaderboard.isConsistent());
+        assertEquals(film.getId(), filmService.getPopular(1, null, null).iterator().next().getId());
+    }
+
+    private User createUser() {
+        return User.builder()
+                .email("buffer@mail.ru")
+                .login("Buffer")
+                .name("Buffer")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.metrics.RequestMetricsFilter;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class MetricsTest {
+
+    private final MockMvc mockMvc;
+
+    @Test
+    public void prometheusEndpointTest() throws Exception {
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/films")).andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(RequestMetricsFilter.STATEMENTS_HEADER, "1"));
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/films/popular")).andReturn()))
+                .andExpect(status().isOk());
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/genres/1")).andReturn()))
+                .andExpect(status().isOk());
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/users/-1")).andReturn()))
+                .andExpect(status().isNotFound());
+
+        String metrics = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(metrics.contains("filmorate_storage_seconds_count{method=\"getPopular\",outcome=\"success\",storage=\"FilmStorage\",}"));
+        assertTrue(metrics.contains("filmorate_storage_seconds_bucket{method=\"getPopular\""));
+        assertTrue(metrics.contains("filmorate_storage_seconds_count{method=\"getGenre\",outcome=\"success\",storage=\"GenreStorage\",}"));
+        assertTrue(metrics.contains("outcome=\"NotFoundException\",storage=\"UserStorage\""));
+        assertTrue(metrics.contains("filmorate_storage_rows_count{method=\"getPopular\",storage=\"FilmStorage\",}"));
+        assertTrue(metrics.contains("filmorate_http_sql_statements_count{method=\"GET\",uri=\"/films\",}"));
+        assertTrue(metrics.contains("filmorate_sql_statements_total"));
+        assertTrue(metrics.contains("http_server_requests_seconds_bucket"));
+        assertTrue(metrics.contains("executor_queued_tasks{name=\"bulkhead.lists\",}"));
+    }
+}
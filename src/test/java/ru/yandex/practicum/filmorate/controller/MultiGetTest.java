@@ -0,0 +1,150 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.metrics.SqlStatementMetrics;
+import ru.yandex.practicum.filmorate.metrics.SqlStatementScope;
+import ru.yandex.practicum.filmorate.model.Batch;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.film.FilmService;
+import ru.yandex.practicum.filmorate.service.user.UserService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class MultiGetTest {
+
+    private final MockMvc mockMvc;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final FilmService filmService;
+    private final UserService userService;
+    private final SqlStatementMetrics sqlStatementMetrics;
+
+    @Test
+    public void filmsByIdsTest() throws Exception {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            films.add(filmStorage.addFilm(createFilm(i)));
+        }
+        filmService.getFilmById(films.get(1).getId());
+        String ids = films.get(2).getId() + ",-1," + films.get(0).getId() + "," + films.get(1).getId()
+                + "," + films.get(2).getId() + ",-2";
+
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/films").param("ids", ids)).andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CollectionSupport.MISSING_IDS_HEADER, "-1,-2"))
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].name").value("multiFilm2"))
+                .andExpect(jsonPath("$[0].genres[0].id").value(3))
+                .andExpect(jsonPath("$[1].name").value("multiFilm0"))
+                .andExpect(jsonPath("$[2].name").value("multiFilm1"));
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/films").param("ids", ids).param("fields", "name"))
+                        .andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CollectionSupport.MISSING_IDS_HEADER, "-1,-2"))
+                .andExpect(jsonPath("$[0].id").value(films.get(2).getId()))
+                .andExpect(jsonPath("$[0].name").value("multiFilm2"))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].genres").doesNotExist());
+        mockMvc.perform(get("/films").param("ids", ids).param("fields", "rating"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/films").param("ids", "1,x")).andReturn()))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/films").param("ids", "")).andReturn()))
+                .andExpect(status().isBadRequest());
+
+        List<Film> batch = expectStatements(0,
+                () -> filmService.getFilmsByIds(films.get(0).getId() + "," + films.get(1).getId())).getItems();
+        assertEquals(List.of(films.get(0), films.get(1)), batch);
+
+        // cache misses are loaded together with their genres in one statement
+        Film first = filmStorage.addFilm(createFilm(3));
+        Film second = filmStorage.addFilm(createFilm(4));
+        Batch<Film> loaded = expectStatements(1,
+                () -> filmService.getFilmsByIds(second.getId() + ",-3," + first.getId()));
+        assertEquals(List.of(second.getId(), first.getId()),
+                List.of(loaded.getItems().get(0).getId(), loaded.getItems().get(1).getId()));
+        assertEquals(second.getGenres(), loaded.getItems().get(0).getGenres());
+        assertEquals(List.of(-3), loaded.getMissingIds());
+    }
+
+    @Test
+    public void usersByIdsTest() throws Exception {
+        User first = userStorage.addUser(createUser("multiFirst"));
+        User second = userStorage.addUser(createUser("multiSecond"));
+
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/users")
+                        .param("ids", second.getId() + ", " + first.getId())).andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(CollectionSupport.MISSING_IDS_HEADER))
+                .andExpect(jsonPath("$[0].login").value("multiSecond"))
+                .andExpect(jsonPath("$[1].login").value("multiFirst"));
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/users")
+                        .param("ids", String.valueOf(first.getId())).param("fields", "login")).andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(first.getId()))
+                .andExpect(jsonPath("$[0].login").value("multiFirst"))
+                .andExpect(jsonPath("$[0].email").doesNotExist());
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/users").param("ids", "-5")).andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CollectionSupport.MISSING_IDS_HEADER, "-5"))
+                .andExpect(jsonPath("$.length()").value(0));
+
+        Batch<User> batch = expectStatements(1,
+                () -> userService.getUsersByIds(first.getId() + "," + second.getId() + ",-6"));
+        assertEquals(List.of(first, second), batch.getItems());
+        assertEquals(List.of(-6), batch.getMissingIds());
+    }
+
+    private <T> T expectStatements(int statements, Supplier<T> operation) {
+        try (SqlStatementScope scope = sqlStatementMetrics.open("expectStatements", statements, 0, true)) {
+            T result = operation.get();
+            assertEquals(statements, scope.count());
+            return result;
+        }
+    }
+
+    private Film createFilm(int i) {
+        return Film.builder()
+                .name("multiFilm" + i)
+                .description("multiFilm")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(120)
+                .mpa(Mpa.builder().id(1).build())
+                .genres(List.of(Genre.builder().id(i % 6 + 1).build()))
+                .build();
+    }
+
+    private User createUser(String login) {
+        return User.builder()
+                .email(login + "@mail.ru")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1980, 12, 12))
+                .build();
+    }
+}
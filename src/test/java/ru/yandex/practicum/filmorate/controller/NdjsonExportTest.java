@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class NdjsonExportTest {
+
+    private static final long EXPORT_TIMEOUT = Duration.ofMinutes(10).toMillis();
+
+    private final MockMvc mockMvc;
+    private final UserStorage userStorage;
+
+    @Test
+    public void exportTimeoutIsScopedTest() throws Exception {
+        userStorage.addUser(User.builder()
+                .email("ndjson@mail.ru")
+                .login("ndjsonUser")
+                .name("ndjsonUser")
+                .birthday(LocalDate.of(1980, 12, 12))
+                .build());
+
+        MvcResult export = mockMvc.perform(get("/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(EXPORT_TIMEOUT, export.getRequest().getAsyncContext().getTimeout());
+        String body = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(NdjsonSupport.APPLICATION_NDJSON_VALUE))
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(body.contains("\"login\":\"ndjsonUser\""));
+
+        MvcResult popular = mockMvc.perform(get("/films/popular"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertNotEquals(EXPORT_TIMEOUT, popular.getRequest().getAsyncContext().getTimeout());
+    }
+}
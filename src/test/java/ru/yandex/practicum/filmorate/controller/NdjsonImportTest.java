@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "filmorate.bulk.chunk-size=2")
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class NdjsonImportTest {
+
+    private final MockMvc mockMvc;
+
+    @Test
+    public void failedChunkIsReportedPerItemTest() throws Exception {
+        String body = film("first") + film("second") + film("x".repeat(150)) + film("fourth") + film("fifth")
+                + "{\"name\":\n";
+
+        mockMvc.perform(post("/films/bulk")
+                        .contentType(NdjsonSupport.APPLICATION_NDJSON_VALUE)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(6))
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.errors.length()").value(3))
+                .andExpect(jsonPath("$.errors[0].index").value(2))
+                .andExpect(jsonPath("$.errors[0].error").value(startsWith("Chunk not imported")))
+                .andExpect(jsonPath("$.errors[1].index").value(3))
+                .andExpect(jsonPath("$.errors[2].index").value(5))
+                .andExpect(jsonPath("$.errors[2].error").value(startsWith("Malformed record")));
+    }
+
+    private static String film(String name) {
+        return "{\"name\":\"" + name + "\",\"description\":\"description\",\"releaseDate\":\"1980-12-12\","
+                + "\"duration\":100,\"mpa\":{\"id\":1}}\n";
+    }
+}
@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.yandex.practicum.filmorate.controller.reactive.ReactiveServer;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "filmorate.reactive.enabled=true")
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ReactiveStorageTest {
+
+    private final ReactiveServer reactiveServer;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+
+    @Test
+    public void reactiveEndpointsTest() {
+        WebTestClient client = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + reactiveServer.port())
+                .build();
+        Film film = filmStorage.addFilm(Film.builder()
+                .name("reactiveFilm")
+                .description("reactiveFilm")
+                .releaseDate(LocalDate.of(2001, 2, 3))
+                .duration(100)
+                .mpa(Mpa.builder().id(2).build())
+                .genres(List.of(Genre.builder().id(1).build(), Genre.builder().id(3).build()))
+                .build());
+        User user = userStorage.addUser(createUser("reactiveUser"));
+        User friend = userStorage.addUser(createUser("reactiveFriend"));
+        userStorage.addFriend(user.getId(), friend.getId());
+        filmStorage.addLike(film.getId(), user.getId());
+
+        client.get().uri("/films/{id}", film.getId()).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("reactiveFilm")
+                .jsonPath("$.releaseDate").isEqualTo("2001-02-03")
+                .jsonPath("$.mpa.id").isEqualTo(2)
+                .jsonPath("$.genres[1].id").isEqualTo(3);
+        client.get().uri("/films/{id}", -1).exchange()
+                .expectStatus().isNotFound();
+        client.get().uri("/films?limit=0").exchange()
+                .expectStatus().isBadRequest();
+        client.get().uri("/films?limit=1").exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(CollectionSupport.NEXT_CURSOR_HEADER);
+        client.get().uri("/films/popular?count=1000").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[*].id").value(hasItem(film.getId()));
+        client.get().uri("/films/popular?count=0").exchange()
+                .expectStatus().isBadRequest();
+        client.get().uri("/films/popular?count=ten").exchange()
+                .expectStatus().isBadRequest();
+        client.get().uri("/films/popular?count=" + Integer.MAX_VALUE).exchange()
+                .expectStatus().isOk();
+        client.get().uri("/users/{id}/friends", user.getId()).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].login").isEqualTo("reactiveFriend");
+
+        String export = client.get().uri("/films/export").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+        assertTrue(export.contains("\"name\":\"reactiveFilm\""));
+        assertEquals(filmStorage.getAllFilms().size(), export.split("\n").length);
+    }
+
+    private User createUser(String login) {
+        return User.builder()
+                .email(login + "@mail.ru")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.service.ScoreBoard;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ScoreBoardTest {
+
+    @Test
+    public void sparseIdsTest() {
+        ScoreBoard board = new ScoreBoard();
+
+        board.exclude(2_000_000_000);
+        board.add(2_000_000_000, 5);
+        board.add(1_500_000_000, 2);
+        board.add(7, 2);
+        board.add(1_000_000_000, 3);
+
+        assertEquals(3, board.size());
+        assertArrayEquals(new int[]{1_000_000_000, 7, 1_500_000_000}, board.top(10));
+
+        board.reset();
+        for (int id = 1; id <= 100_000; id++) {
+            board.add(id * 10_000, id % 7 + 1);
+        }
+        assertEquals(100_000, board.size());
+        assertArrayEquals(new int[]{60_000, 130_000}, board.top(2));
+
+        board.reset();
+        board.add(3, 1);
+        assertArrayEquals(new int[]{3}, board.ids());
+    }
+}
@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.util.SortedIntAdjacency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SortedIntAdjacencyTest {
+
+    @Test
+    public void snapshotTest() {
+        SortedIntAdjacency adjacency = new SortedIntAdjacency();
+        for (int value : new int[]{5, 1, 9, 3}) {
+            assertTrue(adjacency.add(2, value));
+        }
+        assertFalse(adjacency.add(2, 3));
+        int[] before = adjacency.get(2);
+        assertArrayEquals(new int[]{1, 3, 5, 9}, before);
+
+        // readers keep what they got, writes go to the row's own array
+        adjacency.add(2, 4);
+        adjacency.remove(2, 1);
+        assertArrayEquals(new int[]{1, 3, 5, 9}, before);
+        assertArrayEquals(new int[]{3, 4, 5, 9}, adjacency.get(2));
+        assertArrayEquals(new int[]{3, 4, 5, 9}, adjacency.clear(2));
+        assertArrayEquals(SortedIntAdjacency.EMPTY, adjacency.get(2));
+        assertArrayEquals(SortedIntAdjacency.EMPTY, adjacency.get(100));
+    }
+
+    @Test
+    public void concurrentWritesTest() throws Exception {
+        int threads = 4;
+        int perThread = 5_000;
+        SortedIntAdjacency adjacency = new SortedIntAdjacency();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<CompletableFuture<Void>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                writers.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        int value = i * threads + offset;
+                        adjacency.add(0, value);
+                        adjacency.add(value % 64 + 1, value);
+                        adjacency.get(0);
+                    }
+                }, executor));
+            }
+            for (CompletableFuture<Void> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertArrayEquals(IntStream.range(0, threads * perThread).toArray(), adjacency.get(0));
+        assertEquals(2L * threads * perThread, adjacency.edgeCount());
+    }
+}
@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class SparseFieldsTest {
+
+    private final MockMvc mockMvc;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+
+    @Test
+    public void filmFieldsTest() throws Exception {
+        Film film = filmStorage.addFilm(Film.builder()
+                .name("sparseFilm")
+                .description("sparseFilm")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(120)
+                .mpa(Mpa.builder().id(3).build())
+                .genres(List.of(Genre.builder().id(2).build()))
+                .build());
+        String url = "/films?limit=1&after=" + (film.getId() - 1);
+
+        String full = fetch(url);
+        String sparse = fetch(url + "&fields=name");
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get(url + "&fields=name")).andReturn()))
+                .andExpect(jsonPath("$[0].id").value(film.getId()))
+                .andExpect(jsonPath("$[0].name").value("sparseFilm"))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].mpa").doesNotExist())
+                .andExpect(jsonPath("$[0].genres").doesNotExist());
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get(url + "&fields=mpa, genres")).andReturn()))
+                .andExpect(jsonPath("$[0].name").doesNotExist())
+                .andExpect(jsonPath("$[0].mpa.name").value("PG-13"))
+                .andExpect(jsonPath("$[0].genres[0].id").value(2));
+        assertTrue(sparse.length() * 3 < full.length(), sparse + " vs " + full);
+        mockMvc.perform(get(url + "&fields=name,rating")).andExpect(status().isBadRequest());
+
+        Film projected = filmStorage.getFilms(film.getId() - 1, 1, EnumSet.of(FilmField.ID, FilmField.DURATION)).get(0);
+        assertEquals(120, projected.getDuration());
+        assertNull(projected.getName());
+        assertNull(projected.getMpa());
+        assertNull(projected.getGenres());
+    }
+
+    @Test
+    public void friendFieldsTest() throws Exception {
+        User user = userStorage.addUser(createUser("sparseUser"));
+        User friend = userStorage.addUser(createUser("sparseFriend"));
+        userStorage.addFriend(user.getId(), friend.getId());
+        String url = "/users/" + user.getId() + "/friends";
+
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get(url).param("fields", "login")).andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(friend.getId()))
+                .andExpect(jsonPath("$[0].login").value("sparseFriend"))
+                .andExpect(jsonPath("$[0].email").doesNotExist())
+                .andExpect(jsonPath("$[0].birthday").doesNotExist());
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get(url)).andReturn()))
+                .andExpect(jsonPath("$[0].email").value("sparseFriend@mail.ru"))
+                .andExpect(jsonPath("$[0].birthday").value("1980-12-12"));
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/users?limit=1&after=" + (user.getId() - 1))
+                        .param("fields", "name")).andReturn()))
+                .andExpect(jsonPath("$[0].name").value("sparseUser"))
+                .andExpect(jsonPath("$[0].login").doesNotExist());
+    }
+
+    @Test
+    public void plainMapperTest() throws Exception {
+        // only the application mapper knows the fields filter, any other mapper serializes everything
+        String json = Jackson2ObjectMapperBuilder.json().build().writeValueAsString(createUser("plainMapper"));
+
+        assertTrue(json.contains("\"email\":\"plainMapper@mail.ru\""), json);
+    }
+
+    private String fetch(String url) throws Exception {
+        return mockMvc.perform(asyncDispatch(mockMvc.perform(get(url)).andReturn()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private User createUser(String login) {
+        return User.builder()
+                .email(login + "@mail.ru")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1980, 12, 12))
+                .build();
+    }
+}
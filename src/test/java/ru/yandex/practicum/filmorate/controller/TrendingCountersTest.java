@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.film.TrendingCounters;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TrendingCountersTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    @Test
+    public void slidingWindowTest() {
+        TrendingCounters trending = new TrendingCounters(Duration.ofHours(1), Duration.ofDays(1), Duration.ofHours(12));
+        long start = (System.currentTimeMillis() / HOUR) * HOUR;
+
+        trending.add(1, start);
+        trending.add(1, start);
+        trending.add(1, start);
+        trending.roll(start + 10 * HOUR);
+        trending.add(2, start + 10 * HOUR);
+        trending.add(2, start + 10 * HOUR);
+
+        assertEquals(List.of(2, 1), trending.top(10, Duration.ofHours(24)));
+        assertEquals(List.of(2), trending.top(10, Duration.ofHours(6)));
+        assertEquals(List.of(2), trending.top(1, Duration.ofHours(24)));
+
+        trending.roll(start + 13 * HOUR);
+        trending.remove(1, start);
+        trending.remove(2, start + 10 * HOUR);
+        assertEquals(List.of(1, 2), trending.top(10, Duration.ofHours(24)));
+
+        trending.roll(start + 24 * HOUR);
+        assertEquals(List.of(2), trending.top(10, Duration.ofHours(24)));
+        assertEquals(1, trending.activeFilms());
+
+        trending.add(3, start);
+        trending.roll(start + 40 * HOUR);
+        assertEquals(List.of(), trending.top(10, Duration.ofHours(24)));
+        assertEquals(0, trending.activeFilms());
+    }
+}
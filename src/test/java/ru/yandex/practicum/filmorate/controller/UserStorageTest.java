@@ -0,0 +1,254 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.user.UserService;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Behaviour shared by every {@link UserStorage} implementation. Subclasses pick the profile and may
+ * add checks for the indexes that only their tier maintains.
+ */
+abstract class UserStorageTest {
+
+    @Autowired
+    protected UserStorage userStorage;
+    @Autowired
+    protected UserService userService;
+
+    @Test
+    public void addUserTest() {
+
+        User newUser = createDefaultUser();
+        User user = userStorage.addUser(newUser);
+
+        newUser.setId(user.getId());
+
+        compare(newUser, user);
+    }
+
+    @Test
+    public void updateUserTest() {
+
+        User newUser = createDefaultUser();
+        User user = userStorage.addUser(newUser);
+
+        user.setName("NewName");
+        user.setEmail("newMail@mail.ru");
+        user.setBirthday(LocalDate.of(2001, 1, 1));
+        user.setLogin("NewLogin");
+        userStorage.updateUser(user);
+
+        User savedUser = userStorage.getUserById(user.getId());
+
+        compare(user, savedUser);
+    }
+
+    @Test
+    public void addFriendTest() {
+        User user1 = userStorage.addUser(createDefaultUser());
+        User user2 = userStorage.addUser(createDefaultUser());
+
+        assertEquals(0, userStorage.getFriends(user1.getId()).size());
+        assertEquals(0, userStorage.getFriends(user2.getId()).size());
+
+        userStorage.addFriend(user1.getId(), user2.getId());
+        List<User> friends = new ArrayList<>(userStorage.getFriends(user1.getId()));
+
+        assertEquals(1, friends.size());
+        assertEquals(0, userStorage.getFriends(user2.getId()).size());
+        assertEquals(user2.getId(), friends.get(0).getId());
+    }
+
+    @Test
+    public void removeFriendTest() {
+        User user1 = userStorage.addUser(createDefaultUser());
+        User user2 = userStorage.addUser(createDefaultUser());
+
+        userStorage.addFriend(user2.getId(), user1.getId());
+
+        assertEquals(0, userStorage.getFriends(user1.getId()).size());
+        assertEquals(1, userStorage.getFriends(user2.getId()).size());
+
+        userStorage.deleteFriend(user2.getId(), user1.getId());
+
+        assertEquals(0, userStorage.getFriends(user1.getId()).size());
+        assertEquals(0, userStorage.getFriends(user2.getId()).size());
+    }
+
+    @Test
+    public void commonFriendsTest() {
+        User user1 = userStorage.addUser(createDefaultUser());
+        User user2 = userStorage.addUser(createDefaultUser());
+        User user3 = userStorage.addUser(createDefaultUser());
+
+        userStorage.addFriend(user1.getId(), user2.getId());
+        userStorage.addFriend(user1.getId(), user3.getId());
+
+        userStorage.addFriend(user2.getId(), user1.getId());
+        userStorage.addFriend(user2.getId(), user3.getId());
+
+        List<User> friends1 = new ArrayList<>(userStorage.getFriends((user1.getId())));
+        Set<Integer> list1 = friends1.stream().map(User::getId).collect(Collectors.toCollection(HashSet::new));
+
+        List<User> friends2 = new ArrayList<>(userStorage.getFriends((user2.getId())));
+        Set<Integer> list2 = friends2.stream().map(User::getId).collect(Collectors.toCollection(HashSet::new));
+
+        assertEquals(2, list1.size());
+        assertEquals(2, list2.size());
+        assertTrue(list1.contains(user3.getId()));
+        assertTrue(list2.contains(user3.getId()));
+    }
+
+    @Test
+    public void getUsersPageTest() {
+        User user1 = userStorage.addUser(createDefaultUser());
+        User user2 = userStorage.addUser(createDefaultUser());
+        User user3 = userStorage.addUser(createDefaultUser());
+
+        List<User> page = userStorage.getUsers(user1.getId(), 1);
+
+        assertEquals(1, page.size());
+        assertEquals(user2.getId(), page.get(0).getId());
+
+        page = userStorage.getUsers(user2.getId(), 10);
+
+        assertEquals(user3.getId(), page.get(0).getId());
+        assertTrue(page.stream().allMatch(user -> user.getId() > user2.getId()));
+    }
+
+    @Test
+    public void exportUsersTest() {
+        User user1 = userStorage.addUser(createDefaultUser());
+        User user2 = userStorage.addUser(createDefaultUser());
+        User user3 = userStorage.addUser(createDefaultUser());
+
+        userStorage.addFriend(user1.getId(), user3.getId());
+        userStorage.addFriend(user1.getId(), user2.getId());
+
+        List<User> exported = new ArrayList<>();
+        userStorage.exportUsers(exported::add);
+        User user = exported.stream().filter(u -> u.getId().equals(user1.getId())).findFirst().orElseThrow();
+
+        assertEquals(List.of(user2.getId(), user3.getId()), new ArrayList<>(user.getFriends()));
+        compare(user1, user);
+    }
+
+    @Test
+    public void bulkAddUsersAndFriendsTest() {
+        List<Integer> ids = userStorage.addUsers(List.of(createDefaultUser(), createDefaultUser()));
+
+        assertEquals(2, ids.size());
+        assertEquals("User", userStorage.getUserById(ids.get(0)).getLogin());
+
+        int[] counts = userStorage.addFriends(List.of(
+                new Friendship(ids.get(0), ids.get(1)),
+                new Friendship(ids.get(0), -1),
+                new Friendship(ids.get(0), ids.get(1))));
+
+        assertArrayEquals(new int[]{1, 0, 0}, counts);
+        assertEquals(ids.get(1), new ArrayList<>(userStorage.getFriends(ids.get(0))).get(0).getId());
+    }
+
+    @Test
+    public void friendGraphTest() {
+        List<Integer> ids = userStorage.addUsers(Collections.nCopies(60, createDefaultUser()));
+        Integer popular = ids.get(0);
+        Integer user = ids.get(1);
+        List<Friendship> friendships = new ArrayList<>();
+        for (Integer id : ids.subList(2, ids.size())) {
+            friendships.add(new Friendship(popular, id));
+        }
+        userStorage.addFriends(friendships);
+        userStorage.addFriend(user, ids.get(10));
+        userStorage.addFriend(user, ids.get(40));
+
+        List<Integer> common = userStorage.getCommonFriends(user, popular).stream()
+                .map(User::getId)
+                .collect(Collectors.toList());
+
+        assertEquals(List.of(ids.get(10), ids.get(40)), common);
+        assertEquals(58, userStorage.getFriends(popular).size());
+        assertIndexesConsistent();
+
+        userStorage.deleteUser(ids.get(40));
+        userStorage.deleteFriend(user, ids.get(10));
+
+        assertEquals(0, userStorage.getCommonFriends(user, popular).size());
+        assertIndexesConsistent();
+
+        rebuildIndexes();
+
+        assertEquals(57, userStorage.getFriends(popular).size());
+    }
+
+    @Test
+    public void friendSuggestionsTest() {
+        List<Integer> ids = userStorage.addUsers(Collections.nCopies(6, createDefaultUser()));
+        Integer user = ids.get(0);
+        userService.addFriend(user, ids.get(1));
+        userService.addFriend(user, ids.get(2));
+        userService.addFriend(ids.get(1), ids.get(3));
+        userService.addFriend(ids.get(1), ids.get(4));
+        userService.addFriend(ids.get(2), ids.get(3));
+        userService.addFriend(ids.get(2), user);
+
+        List<Integer> suggestions = userService.getFriendSuggestions(user, 10).stream()
+                .map(User::getId)
+                .collect(Collectors.toList());
+
+        assertEquals(List.of(ids.get(3), ids.get(4)), suggestions);
+        assertEquals(1, userService.getFriendSuggestions(user, 1).size());
+
+        userService.addFriend(user, ids.get(3));
+
+        assertEquals(List.of(ids.get(4)), userService.getFriendSuggestions(user, 10).stream()
+                .map(User::getId)
+                .collect(Collectors.toList()));
+
+        userService.addFriend(ids.get(1), ids.get(5));
+
+        assertEquals(List.of(ids.get(4), ids.get(5)), userService.getFriendSuggestions(user, 10).stream()
+                .map(User::getId)
+                .collect(Collectors.toList()));
+        assertThrows(NotFoundException.class, () -> userService.getFriendSuggestions(-1, 10));
+    }
+
+    protected void assertIndexesConsistent() {
+    }
+
+    protected void rebuildIndexes() {
+    }
+
+    protected User createDefaultUser() {
+        return User.builder()
+                .email("user@mail.ru")
+                .login("User")
+                .name("User")
+                .birthday(LocalDate.of(2005, 8, 15))
+                .build();
+    }
+
+    private void compare(User user1, User user2) {
+        assertNotNull(user1);
+        assertNotNull(user2);
+        assertEquals(user1.getId(), user2.getId());
+        assertEquals(user1.getLogin(), user2.getLogin());
+        assertEquals(user1.getName(), user2.getName());
+        assertEquals(user1.getEmail(), user2.getEmail());
+        assertEquals(user1.getBirthday(), user2.getBirthday());
+    }
+}